@@ -0,0 +1,40 @@
+#!/bin/sh
+# Measures the time to the first request of the regular image (Dockerfile) and the startup-optimized image (Dockerfile.cds)
+#
+# Usage: docker/cds/measure.sh [runs]
+#
+# Builds both images, starts the database of docker-compose.yml and starts each image the given number of times, 5 by default. A run is timed from
+# "docker run" until the first request for books is answered. The containers use the host network, so the dev profile finds the database on localhost.
+set -eu
+
+RUNS=${1:-5}
+PORT=8080
+
+cd "$(dirname "$0")/../.."
+docker build -q -t rate-your-books . > /dev/null
+docker build -q -f Dockerfile.cds -t rate-your-books-cds . > /dev/null
+docker compose up -d db > /dev/null
+until docker compose exec -T db pg_isready -U postgres > /dev/null 2>&1; do
+  sleep 1
+done
+
+measure() {
+  image=$1
+  total=0
+  for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    container=$(docker run -d --network host "$image")
+    until curl -sf "http://localhost:$PORT/api/books?limit=1" > /dev/null; do
+      sleep 0.05
+    done
+    millis=$(( ($(date +%s%N) - start) / 1000000 ))
+    docker rm -f "$container" > /dev/null
+    total=$((total + millis))
+    printf '%-20s | %3d | %8d\n' "$image" "$run" "$millis"
+  done
+  printf '%-20s | avg | %8d\n' "$image" $((total / RUNS))
+}
+
+printf '%-20s | run | first request (ms)\n' "image"
+measure rate-your-books
+measure rate-your-books-cds
@@ -0,0 +1,60 @@
+#!/bin/sh
+# Training run creating the AppCDS archive application.jsa for Dockerfile.cds
+#
+# Starts a throwaway PostgreSQL and runs the application with -XX:ArchiveClassesAtExit while the endpoints of the BookController are exercised, so the
+# archive holds the classes of the request paths and not only those of the startup. The JVM flags and the class path must match the ENTRYPOINT.
+set -eu
+
+PGDATA=/tmp/cds-pgdata
+BASE_URL=http://localhost:8080/api/books
+JSON="Content-Type: application/json"
+
+mkdir -p "$PGDATA" /run/postgresql
+chown postgres "$PGDATA" /run/postgresql
+su postgres -c "initdb -D $PGDATA -U postgres --auth=trust" > /dev/null
+su postgres -c "pg_ctl -D $PGDATA -l /tmp/cds-postgres.log -w start"
+su postgres -c "createdb -U postgres rateyourbooks"
+
+java -XX:ArchiveClassesAtExit=application.jsa -Dspring.aot.enabled=true -cp "rate-your-books.jar:lib/*" de.cimtag.rateyourbooks.RateYourBooksApplication \
+  --spring.datasource.url=jdbc:postgresql://localhost:5432/rateyourbooks &
+APP_PID=$!
+
+until curl -sf http://localhost:8080/actuator/health > /dev/null; do
+  kill -0 "$APP_PID"
+  sleep 1
+done
+
+for run in 1 2 3; do
+  ID=$(curl -sf -H "$JSON" -d '{"title":"Training Book","author":"Training Author"}' "$BASE_URL" | sed -E 's/.*"id":([0-9]+).*/\1/')
+  curl -sf "$BASE_URL/$ID" > /dev/null
+  curl -sf -H "Accept: application/cbor" "$BASE_URL/$ID" > /dev/null
+  curl -sf "$BASE_URL?title=Training%20Book" > /dev/null
+  curl -sf "$BASE_URL?author=Training%20Author" > /dev/null
+  curl -sf "$BASE_URL?limit=10" > /dev/null
+  curl -sf "$BASE_URL/search?q=training" > /dev/null
+  curl -sf "$BASE_URL/lookup?title=training" > /dev/null
+  curl -sf -X PUT -H "$JSON" -d '{"title":"Training Book","author":"Training Author"}' "$BASE_URL/$ID" > /dev/null
+  curl -sf -X PATCH -H "$JSON" -d '{"author":"Training Author"}' "$BASE_URL/$ID" > /dev/null
+  curl -sf -H "$JSON" -d '{"score":4}' "$BASE_URL/$ID/ratings" > /dev/null
+  curl -sf http://localhost:8080/api/leaderboard > /dev/null
+
+  BATCH=$(curl -sf -H "$JSON" -d '[{"title":"Training Batch","author":"Training Author"}]' "$BASE_URL/batch")
+  curl -sf -X PUT -H "$JSON" -d "$BATCH" "$BASE_URL/batch" > /dev/null
+  curl -sf -X DELETE -H "$JSON" -d "$BATCH" "$BASE_URL/batch" > /dev/null
+
+  printf 'title,author\nTraining Import,Training Author\n' | curl -sf -H "Content-Type: text/csv" --data-binary @- "$BASE_URL/import" > /dev/null
+  curl -sf "$BASE_URL/stream" > /dev/null
+  curl -sf "$BASE_URL/export?format=CSV" > /dev/null
+  curl -sf "$BASE_URL/export?format=NDJSON&gzip=true" > /dev/null
+
+  curl -sf -X DELETE "$BASE_URL/$ID" > /dev/null
+  curl -s "$BASE_URL/$ID" > /dev/null
+done
+
+# The archive is written when the JVM exits
+kill -TERM "$APP_PID"
+wait "$APP_PID" || true
+test -s application.jsa
+
+su postgres -c "pg_ctl -D $PGDATA -m fast -w stop"
+rm -rf "$PGDATA" /tmp/cds-postgres.log
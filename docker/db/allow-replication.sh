@@ -0,0 +1,4 @@
+#!/bin/sh
+# Lets the read replica stream the WAL from this primary with the regular postgres user
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
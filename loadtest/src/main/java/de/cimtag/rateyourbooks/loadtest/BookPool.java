@@ -0,0 +1,91 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The books the operations of a run work on.
+ * <p>
+ * Before the run a fixed set of books is seeded, with unique titles and ten books per author, so every search finds something. Reads and updates pick
+ * from the seeded books, deletes only remove books created during the run, so the seeded books stay intact for the whole run.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class BookPool {
+
+  static final int BOOKS_PER_AUTHOR = 10;
+
+  private final String runId;
+  private final List<Long> seededIds;
+  private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+  private final AtomicLong createdCount = new AtomicLong();
+
+  BookPool(String runId, List<Long> seededIds) {
+    this.runId = runId;
+    this.seededIds = List.copyOf(seededIds);
+  }
+
+  static String title(String runId, int index) {
+    return "Load Test Book " + runId + "-" + index;
+  }
+
+  static String author(String runId, int index) {
+    return "Load Test Author " + runId + "-" + index / BOOKS_PER_AUTHOR;
+  }
+
+  /**
+   * Picks the index of a random seeded book.
+   *
+   * @param random the random source of the run
+   * @return an index into the seeded books
+   */
+  int randomIndex(Random random) {
+    return random.nextInt(seededIds.size());
+  }
+
+  long seededId(int index) {
+    return seededIds.get(index);
+  }
+
+  String title(int index) {
+    return title(runId, index);
+  }
+
+  String author(int index) {
+    return author(runId, index);
+  }
+
+  String nextCreatedTitle() {
+    return "Load Test Created " + runId + "-" + createdCount.incrementAndGet();
+  }
+
+  String createdAuthor() {
+    return "Load Test Author " + runId + "-created";
+  }
+
+  void addCreated(long id) {
+    createdIds.addLast(id);
+  }
+
+  /**
+   * Takes the oldest book created during the run for deletion.
+   *
+   * @return the ID of the book, or {@code null} if there is none left
+   */
+  Long pollCreated() {
+    return createdIds.pollFirst();
+  }
+
+  /**
+   * Returns the seeded books and the books created during the run which have not been deleted.
+   *
+   * @return the IDs of all books left by the run
+   */
+  List<Long> allIds() {
+    return Stream.concat(seededIds.stream(), createdIds.stream()).toList();
+  }
+}
@@ -0,0 +1,77 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the latencies and failures of every operation.
+ * <p>
+ * Latencies are recorded in microseconds into HdrHistogram {@link Recorder}s, which can be written from many threads without locking.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class LatencyRecorder {
+
+  private final Map<Operation, OperationRecorder> recorders = new EnumMap<>(Operation.class);
+
+  LatencyRecorder() {
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new OperationRecorder());
+    }
+  }
+
+  void record(Operation operation, long latencyNanos, boolean failed) {
+    OperationRecorder recorder = recorders.get(operation);
+    recorder.latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+    if (failed) {
+      recorder.failures.increment();
+    }
+  }
+
+  void recordDropped(Operation operation) {
+    recorders.get(operation).dropped.increment();
+  }
+
+  /**
+   * Creates the report of everything recorded so far.
+   *
+   * @param options      the options of the run
+   * @param elapsedNanos the time the recorded requests took to complete
+   * @return the report
+   */
+  LoadReport report(LoadTestOptions options, long elapsedNanos) {
+    Histogram total = new Histogram(3);
+    Map<Operation, LoadReport.OperationReport> operations = new EnumMap<>(Operation.class);
+    long failures = 0;
+    long dropped = 0;
+
+    for (Map.Entry<Operation, OperationRecorder> entry : recorders.entrySet()) {
+      Histogram histogram = entry.getValue().latencies.getIntervalHistogram();
+      long operationFailures = entry.getValue().failures.sum();
+      long operationDropped = entry.getValue().dropped.sum();
+      if (histogram.getTotalCount() == 0 && operationDropped == 0) {
+        continue;
+      }
+
+      total.add(histogram);
+      failures += operationFailures;
+      dropped += operationDropped;
+      operations.put(entry.getKey(), new LoadReport.OperationReport(histogram.getTotalCount(), operationFailures, operationDropped,
+          LoadReport.Latency.of(histogram)));
+    }
+
+    return new LoadReport(options.scenario(), options.rate(), options.duration().toSeconds(), total.getTotalCount(), failures, dropped,
+        total.getTotalCount() * 1e9 / elapsedNanos, LoadReport.Latency.of(total), operations);
+  }
+
+  private static final class OperationRecorder {
+
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+  }
+}
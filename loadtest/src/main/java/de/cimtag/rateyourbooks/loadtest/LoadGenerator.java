@@ -0,0 +1,123 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends requests at a fixed arrival rate, following an open workload model.
+ * <p>
+ * Requests are started on a fixed schedule, independent of how fast earlier requests complete, as real clients do not wait for each other. Each request
+ * runs on its own virtual thread. Latencies are measured from the scheduled start of a request, not from the moment it was actually sent, so delays of
+ * the generator itself or of a stalled application are not hidden (coordinated omission). If more than the configured number of requests are
+ * outstanding, new requests are dropped and counted instead of piling up without bound.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class LoadGenerator {
+
+  private static final Pattern ID_PATTERN = Pattern.compile("\"id\":(\\d+)");
+
+  private final LoadTestOptions options;
+  private final HttpClient httpClient;
+  private final BookPool books;
+  private final Random random;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  LoadGenerator(LoadTestOptions options, HttpClient httpClient, BookPool books) {
+    this.options = options;
+    this.httpClient = httpClient;
+    this.books = books;
+    this.random = new Random(options.randomSeed());
+  }
+
+  /**
+   * Sends requests for the given duration and waits for all of them to complete.
+   *
+   * @param duration the time requests are started
+   * @param recorder the recorder for the latencies, or {@code null} to send without recording, e.g. for warming up
+   * @return the time from the first scheduled request until the last one completed
+   */
+  long run(Duration duration, LatencyRecorder recorder) {
+    long intervalNanos = 1_000_000_000L / options.rate();
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long scheduled = start + i * intervalNanos;
+        if (scheduled >= end) {
+          break;
+        }
+        long delay = scheduled - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+
+        Operation operation = options.scenario().next(random);
+        HttpRequest.Builder request = operation.request(options.baseUrl(), books, random);
+        if (request == null) {
+          // Nothing created yet to delete
+          operation = Operation.CREATE;
+          request = operation.request(options.baseUrl(), books, random);
+        }
+
+        if (inFlight.incrementAndGet() > options.maxInFlight()) {
+          inFlight.decrementAndGet();
+          if (recorder != null) {
+            recorder.recordDropped(operation);
+          }
+          continue;
+        }
+
+        Operation sentOperation = operation;
+        HttpRequest sentRequest = request.timeout(options.timeout()).build();
+        executor.execute(() -> send(sentOperation, sentRequest, scheduled, recorder));
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  private void send(Operation operation, HttpRequest request, long scheduled, LatencyRecorder recorder) {
+    boolean failed;
+    try {
+      HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+      failed = response.statusCode() >= 300;
+      if (!failed && operation == Operation.CREATE) {
+        Matcher matcher = ID_PATTERN.matcher(response.body());
+        if (matcher.find()) {
+          books.addCreated(Long.parseLong(matcher.group(1)));
+        }
+      }
+    } catch (Exception e) {
+      failed = true;
+    } finally {
+      inFlight.decrementAndGet();
+    }
+
+    if (recorder != null) {
+      recorder.record(operation, System.nanoTime() - scheduled, failed);
+    }
+  }
+
+  /**
+   * Returns the IDs in a response body of the batch endpoints.
+   *
+   * @param body the response body, a JSON array of books
+   * @return the IDs of the books
+   */
+  static List<Long> ids(String body) {
+    return ID_PATTERN.matcher(body).results().map(result -> Long.parseLong(result.group(1))).toList();
+  }
+}
@@ -0,0 +1,76 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Machine-readable result of a load test run, written as JSON.
+ *
+ * @param scenario      the traffic mix sent
+ * @param targetRate    the requests started per second
+ * @param durationSecs  the duration of the recorded run
+ * @param requests      the number of completed requests
+ * @param failures      the number of completed requests that failed or were answered with an unexpected status
+ * @param dropped       the number of requests not sent because too many were outstanding
+ * @param throughput    the completed requests per second
+ * @param latencyMillis the latency of all completed requests
+ * @param operations    the results by operation
+ * @author Niklas Witzel
+ */
+public record LoadReport(
+    Scenario scenario,
+    int targetRate,
+    long durationSecs,
+    long requests,
+    long failures,
+    long dropped,
+    double throughput,
+    Latency latencyMillis,
+    Map<Operation, OperationReport> operations
+) {
+
+  /**
+   * Result of a single operation.
+   *
+   * @param requests      the number of completed requests
+   * @param failures      the number of completed requests that failed
+   * @param dropped       the number of requests not sent
+   * @param latencyMillis the latency of the completed requests
+   */
+  public record OperationReport(
+      long requests,
+      long failures,
+      long dropped,
+      Latency latencyMillis
+  ) {
+
+  }
+
+  /**
+   * Latency distribution in milliseconds.
+   *
+   * @param mean the mean latency
+   * @param p50  the median latency
+   * @param p90  the 90th percentile
+   * @param p99  the 99th percentile
+   * @param p999 the 99.9th percentile
+   * @param max  the maximum latency
+   */
+  public record Latency(
+      double mean,
+      double p50,
+      double p90,
+      double p99,
+      double p999,
+      double max
+  ) {
+
+    static Latency of(Histogram micros) {
+      if (micros.getTotalCount() == 0) {
+        return new Latency(0, 0, 0, 0, 0, 0);
+      }
+      return new Latency(micros.getMean() / 1_000, micros.getValueAtPercentile(50) / 1_000.0, micros.getValueAtPercentile(90) / 1_000.0,
+          micros.getValueAtPercentile(99) / 1_000.0, micros.getValueAtPercentile(99.9) / 1_000.0, micros.getMaxValue() / 1_000.0);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Command line entry point of the load test.
+ * <p>
+ * A run seeds books through the batch endpoint, sends the requests of the chosen {@link Scenario} at a fixed rate, first for the warm-up and then for the
+ * recorded duration, deletes every book it left behind and writes a {@link LoadReport} as JSON. The application and its database are expected to be
+ * started already, e.g. with {@code docker compose up db} and {@code mvn spring-boot:run}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public final class LoadTest {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private LoadTest() {
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @param args the options, see {@link LoadTestOptions#USAGE}
+   * @throws Exception if the application cannot be reached or the report cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options;
+    try {
+      options = LoadTestOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(LoadTestOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(options.timeout())
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    String runId = UUID.randomUUID().toString().substring(0, 8);
+    System.out.printf("Seeding %d books for run %s at %s%n", options.seedBooks(), runId, options.baseUrl());
+    BookPool books = new BookPool(runId, seedBooks(httpClient, options, runId));
+
+    try {
+      LoadGenerator generator = new LoadGenerator(options, httpClient, books);
+      System.out.printf("Warming up with scenario %s at %d requests/s for %s%n", options.scenario(), options.rate(), options.warmup());
+      generator.run(options.warmup(), null);
+
+      System.out.printf("Recording scenario %s at %d requests/s for %s%n", options.scenario(), options.rate(), options.duration());
+      LatencyRecorder recorder = new LatencyRecorder();
+      LoadReport report = recorder.report(options, generator.run(options.duration(), recorder));
+
+      writeReport(report, options);
+      printSummary(report);
+    } finally {
+      deleteBooks(httpClient, options, books.allIds());
+    }
+  }
+
+  private static List<Long> seedBooks(HttpClient httpClient, LoadTestOptions options, String runId) throws IOException, InterruptedException {
+    List<Long> ids = new ArrayList<>(options.seedBooks());
+    for (int from = 0; from < options.seedBooks(); from += BATCH_SIZE) {
+      String body = IntStream.range(from, Math.min(from + BATCH_SIZE, options.seedBooks()))
+          .mapToObj(index -> Operation.bookJson(BookPool.title(runId, index), BookPool.author(runId, index)))
+          .collect(Collectors.joining(",", "[", "]"));
+      HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(options.baseUrl().resolve("/api/books/batch"))
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofString(body))
+          .build(), BodyHandlers.ofString());
+      if (response.statusCode() != 201) {
+        throw new IllegalStateException("Seeding books failed with status " + response.statusCode() + ": " + response.body());
+      }
+      ids.addAll(LoadGenerator.ids(response.body()));
+    }
+    return ids;
+  }
+
+  private static void deleteBooks(HttpClient httpClient, LoadTestOptions options, List<Long> ids) throws IOException, InterruptedException {
+    System.out.printf("Deleting %d books%n", ids.size());
+    for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+      String body = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())).stream()
+          .map(id -> "{\"id\":" + id + "}")
+          .collect(Collectors.joining(",", "[", "]"));
+      HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(options.baseUrl().resolve("/api/books/batch"))
+          .header("Content-Type", "application/json")
+          .method("DELETE", BodyPublishers.ofString(body))
+          .build(), BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        System.err.printf("Deleting books failed with status %d: %s%n", response.statusCode(), response.body());
+      }
+    }
+  }
+
+  private static void writeReport(LoadReport report, LoadTestOptions options) throws IOException {
+    if (options.output().getParent() != null) {
+      Files.createDirectories(options.output().getParent());
+    }
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.output().toFile(), report);
+    System.out.printf("Report written to %s%n", options.output().toAbsolutePath());
+  }
+
+  private static void printSummary(LoadReport report) {
+    System.out.printf("%-26s | %9s | %8s | %7s | %8s | %8s | %8s | %8s%n", "Operation", "Requests", "Failures", "Dropped", "p50 (ms)", "p99 (ms)",
+        "p999 (ms)", "max (ms)");
+    for (Map.Entry<Operation, LoadReport.OperationReport> entry : report.operations().entrySet()) {
+      printLine(entry.getKey().name(), entry.getValue().requests(), entry.getValue().failures(), entry.getValue().dropped(),
+          entry.getValue().latencyMillis());
+    }
+    printLine("TOTAL", report.requests(), report.failures(), report.dropped(), report.latencyMillis());
+    System.out.printf("Throughput: %.1f requests/s (target %d)%n", report.throughput(), report.targetRate());
+  }
+
+  private static void printLine(String name, long requests, long failures, long dropped, LoadReport.Latency latency) {
+    System.out.printf("%-26s | %9d | %8d | %7d | %8.2f | %8.2f | %9.2f | %8.2f%n", name, requests, failures, dropped, latency.p50(), latency.p99(),
+        latency.p999(), latency.max());
+  }
+}
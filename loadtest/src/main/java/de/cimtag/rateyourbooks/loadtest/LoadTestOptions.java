@@ -0,0 +1,118 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Options of a load test run, parsed from the command line.
+ *
+ * @param baseUrl     the base URL of the application
+ * @param scenario    the traffic mix to send
+ * @param rate        the number of requests started per second, independent of how fast the application answers
+ * @param warmup      the time requests are sent before latencies are recorded
+ * @param duration    the time latencies are recorded
+ * @param seedBooks   the number of books created before the run for the read operations to find
+ * @param maxInFlight the number of outstanding requests above which new requests are dropped and counted as such
+ * @param timeout     the time after which a request counts as failed
+ * @param randomSeed  the seed of the random operation and book selection, so runs send the same sequence of requests
+ * @param output      the file the JSON report is written to
+ * @author Niklas Witzel
+ */
+public record LoadTestOptions(
+    URI baseUrl,
+    Scenario scenario,
+    int rate,
+    Duration warmup,
+    Duration duration,
+    int seedBooks,
+    int maxInFlight,
+    Duration timeout,
+    long randomSeed,
+    Path output
+) {
+
+  static final String USAGE = """
+      Usage: LoadTest [options]
+        --base-url <url>       base URL of the application (default http://localhost:8080)
+        --scenario <name>      SEARCH, READ, WRITE or MIXED (default MIXED)
+        --rate <n>             requests started per second (default 200)
+        --warmup <duration>    unrecorded warm-up, e.g. 30s (default 10s)
+        --duration <duration>  recorded run, e.g. 2m (default 60s)
+        --seed-books <n>       books created before the run (default 1000)
+        --max-in-flight <n>    outstanding requests before new ones are dropped (default 10000)
+        --timeout <duration>   request timeout (default 10s)
+        --random-seed <n>      seed of the request sequence (default 42)
+        --output <file>        JSON report (default target/loadtest-report.json)
+      """;
+
+  /**
+   * Parses the command line arguments.
+   *
+   * @param args the command line arguments, pairs of option and value
+   * @return the options, with defaults for the ones not given
+   * @throws IllegalArgumentException if an option is unknown, has no value or an invalid one
+   */
+  public static LoadTestOptions parse(String[] args) {
+    URI baseUrl = URI.create("http://localhost:8080");
+    Scenario scenario = Scenario.MIXED;
+    int rate = 200;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    int seedBooks = 1000;
+    int maxInFlight = 10_000;
+    Duration timeout = Duration.ofSeconds(10);
+    long randomSeed = 42;
+    Path output = Path.of("target", "loadtest-report.json");
+
+    for (int i = 0; i < args.length; i += 2) {
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value of option " + args[i]);
+      }
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--base-url" -> baseUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+        case "--scenario" -> scenario = Scenario.valueOf(value.toUpperCase(Locale.ROOT));
+        case "--rate" -> rate = Integer.parseInt(value);
+        case "--warmup" -> warmup = parseDuration(value);
+        case "--duration" -> duration = parseDuration(value);
+        case "--seed-books" -> seedBooks = Integer.parseInt(value);
+        case "--max-in-flight" -> maxInFlight = Integer.parseInt(value);
+        case "--timeout" -> timeout = parseDuration(value);
+        case "--random-seed" -> randomSeed = Long.parseLong(value);
+        case "--output" -> output = Path.of(value);
+        default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+
+    if (rate <= 0 || seedBooks <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException("Rate, seed books and maximum in-flight requests must be positive");
+    }
+    return new LoadTestOptions(baseUrl, scenario, rate, warmup, duration, seedBooks, maxInFlight, timeout, randomSeed, output);
+  }
+
+  /**
+   * Parses a duration given either in ISO-8601 format or as a number with one of the units {@code ms}, {@code s}, {@code m} or {@code h}.
+   *
+   * @param value the duration, e.g. {@code 500ms}, {@code 30s}, {@code 2m} or {@code PT2M}
+   * @return the parsed duration
+   */
+  static Duration parseDuration(String value) {
+    String lowerCase = value.toLowerCase(Locale.ROOT);
+    if (lowerCase.startsWith("pt")) {
+      return Duration.parse(value);
+    }
+    if (lowerCase.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(lowerCase.substring(0, lowerCase.length() - 2)));
+    }
+
+    long amount = Long.parseLong(lowerCase.substring(0, lowerCase.length() - 1));
+    return switch (lowerCase.charAt(lowerCase.length() - 1)) {
+      case 's' -> Duration.ofSeconds(amount);
+      case 'm' -> Duration.ofMinutes(amount);
+      case 'h' -> Duration.ofHours(amount);
+      default -> throw new IllegalArgumentException("Invalid duration " + value);
+    };
+  }
+}
@@ -0,0 +1,125 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * The requests a load test sends to the {@code /api/books} endpoints.
+ *
+ * @author Niklas Witzel
+ */
+enum Operation {
+
+  /**
+   * {@code searchBooks} with a title.
+   */
+  SEARCH_BY_TITLE {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      return get(baseUrl, "/api/books?title=" + encode(books.title(books.randomIndex(random))));
+    }
+  },
+
+  /**
+   * {@code searchBooks} with an author.
+   */
+  SEARCH_BY_AUTHOR {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      return get(baseUrl, "/api/books?author=" + encode(books.author(books.randomIndex(random))));
+    }
+  },
+
+  /**
+   * {@code searchBooks} with a title and an author.
+   */
+  SEARCH_BY_TITLE_AND_AUTHOR {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      int index = books.randomIndex(random);
+      return get(baseUrl, "/api/books?title=" + encode(books.title(index)) + "&author=" + encode(books.author(index)));
+    }
+  },
+
+  /**
+   * {@code searchBooks} without criteria, returning all books.
+   */
+  SEARCH_ALL {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      return get(baseUrl, "/api/books");
+    }
+  },
+
+  /**
+   * {@code findBookById} of a seeded book.
+   */
+  FIND_BY_ID {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      return get(baseUrl, "/api/books/" + books.seededId(books.randomIndex(random)));
+    }
+  },
+
+  /**
+   * {@code createNewBook}, the created book is available for deletion afterwards.
+   */
+  CREATE {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      return HttpRequest.newBuilder(baseUrl.resolve("/api/books"))
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofString(bookJson(books.nextCreatedTitle(), books.createdAuthor())));
+    }
+  },
+
+  /**
+   * {@code updateBook} of a seeded book, keeping its title and author so the searches keep finding it.
+   */
+  UPDATE {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      int index = books.randomIndex(random);
+      return HttpRequest.newBuilder(baseUrl.resolve("/api/books/" + books.seededId(index)))
+          .header("Content-Type", "application/json")
+          .PUT(BodyPublishers.ofString(bookJson(books.title(index), books.author(index))));
+    }
+  },
+
+  /**
+   * {@code deleteBook} of a book created during the run.
+   */
+  DELETE {
+    @Override
+    HttpRequest.Builder request(URI baseUrl, BookPool books, Random random) {
+      Long id = books.pollCreated();
+      return id == null ? null : HttpRequest.newBuilder(baseUrl.resolve("/api/books/" + id)).DELETE();
+    }
+  };
+
+  /**
+   * Builds the next request of this operation.
+   *
+   * @param baseUrl the base URL of the application
+   * @param books   the books of the run
+   * @param random  the random source of the run
+   * @return the request, or {@code null} if there is no book to apply the operation to
+   */
+  abstract HttpRequest.Builder request(URI baseUrl, BookPool books, Random random);
+
+  private static HttpRequest.Builder get(URI baseUrl, String pathAndQuery) {
+    return HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery)).header("Accept", "application/json").GET();
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  static String bookJson(String title, String author) {
+    return "{\"title\":\"" + title + "\",\"author\":\"" + author + "\"}";
+  }
+}
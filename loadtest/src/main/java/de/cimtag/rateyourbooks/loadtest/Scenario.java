@@ -0,0 +1,83 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Traffic mixes of a load test, each a weighted choice of {@link Operation}s.
+ *
+ * @author Niklas Witzel
+ */
+public enum Scenario {
+
+  /**
+   * The variants of {@code searchBooks}, listing all books only rarely.
+   */
+  SEARCH(Map.of(
+      Operation.SEARCH_BY_TITLE, 40,
+      Operation.SEARCH_BY_AUTHOR, 35,
+      Operation.SEARCH_BY_TITLE_AND_AUTHOR, 24,
+      Operation.SEARCH_ALL, 1)),
+
+  /**
+   * Lookups by ID with some searches.
+   */
+  READ(Map.of(
+      Operation.FIND_BY_ID, 70,
+      Operation.SEARCH_BY_TITLE, 10,
+      Operation.SEARCH_BY_AUTHOR, 10,
+      Operation.SEARCH_BY_TITLE_AND_AUTHOR, 10)),
+
+  /**
+   * Creates, updates and deletes only.
+   */
+  WRITE(Map.of(
+      Operation.CREATE, 40,
+      Operation.UPDATE, 40,
+      Operation.DELETE, 20)),
+
+  /**
+   * Production-like traffic with 80 % reads and 20 % writes.
+   */
+  MIXED(Map.of(
+      Operation.FIND_BY_ID, 50,
+      Operation.SEARCH_BY_TITLE, 12,
+      Operation.SEARCH_BY_AUTHOR, 12,
+      Operation.SEARCH_BY_TITLE_AND_AUTHOR, 6,
+      Operation.CREATE, 8,
+      Operation.UPDATE, 8,
+      Operation.DELETE, 4));
+
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+
+  Scenario(Map<Operation, Integer> weights) {
+    // Iterated in enum order, so the same random sequence selects the same operations on every run
+    Map<Operation, Integer> ordered = new EnumMap<>(weights);
+    operations = ordered.keySet().toArray(Operation[]::new);
+    cumulativeWeights = new int[operations.length];
+
+    int sum = 0;
+    for (int i = 0; i < operations.length; i++) {
+      sum += ordered.get(operations[i]);
+      cumulativeWeights[i] = sum;
+    }
+  }
+
+  /**
+   * Picks the next operation according to the weights of this scenario.
+   *
+   * @param random the random source of the run
+   * @return the operation
+   */
+  Operation next(Random random) {
+    int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException("Weights exhausted");
+  }
+}
@@ -0,0 +1,52 @@
+package de.cimtag.rateyourbooks.loadtest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the Scenario and the parsing of the LoadTestOptions.
+ *
+ * @author Niklas Witzel
+ */
+class ScenarioTest {
+
+  @Test
+  void testNextFollowsWeights() {
+    Random random = new Random(1);
+    Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+    IntStream.range(0, 100_000).forEach(i -> counts.merge(Scenario.MIXED.next(random), 1, Integer::sum));
+
+    assertThat(counts.get(Operation.FIND_BY_ID) / 100_000.0, closeTo(0.50, 0.01));
+    assertThat(counts.get(Operation.DELETE) / 100_000.0, closeTo(0.04, 0.01));
+    assertThat(counts.containsKey(Operation.SEARCH_ALL), is(false));
+  }
+
+  @Test
+  void testNextIsReproducibleWithSameSeed() {
+    Random first = new Random(42);
+    Random second = new Random(42);
+
+    for (int i = 0; i < 1_000; i++) {
+      assertThat(Scenario.SEARCH.next(first), is(Scenario.SEARCH.next(second)));
+    }
+  }
+
+  @Test
+  void testParseOptions() {
+    LoadTestOptions options = LoadTestOptions.parse(new String[]{"--scenario", "read", "--rate", "500", "--duration", "2m", "--warmup", "500ms"});
+
+    assertThat(options.scenario(), is(Scenario.READ));
+    assertThat(options.rate(), is(500));
+    assertThat(options.duration(), is(Duration.ofMinutes(2)));
+    assertThat(options.warmup(), is(Duration.ofMillis(500)));
+    assertThat(options.baseUrl().toString(), is("http://localhost:8080"));
+  }
+}
@@ -1,17 +1,23 @@
 package de.cimtag.rateyourbooks;
 
+import de.cimtag.rateyourbooks.config.RateYourBooksRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Main entry point for the Rate Your Books application.
  * <p>
  * This class contains the main method which starts the Spring Boot application using SpringApplication.run.
  * </p>
+ * <p>
+ * The hints the application needs beyond the ones derived by Spring's AOT processing are registered by {@link RateYourBooksRuntimeHints}.
+ * </p>
  *
  * @author Niklas Witzel
  */
 @SpringBootApplication
+@ImportRuntimeHints(RateYourBooksRuntimeHints.class)
 public class RateYourBooksApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,77 @@
+package de.cimtag.rateyourbooks.admission;
+
+import de.cimtag.rateyourbooks.exception.ServiceOverloadedException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Admits requests to the API endpoints through the {@link AdmissionLimiter} of their class, reads, writes or streams.
+ * <p>
+ * Rejected requests fail fast with a {@link ServiceOverloadedException}, which is answered with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header. Streaming endpoints, whose handlers return a {@link StreamingResponseBody} or a {@link ResponseBodyEmitter}, keep their
+ * permit until the asynchronous processing has completed, as they hold a connection as long. They have a limiter of their own with a fixed limit, so
+ * their long-running requests neither occupy the slots of ordinary reads nor skew the latencies the read limit adapts to.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+  private final AdmissionLimiter readLimiter;
+  private final AdmissionLimiter writeLimiter;
+  private final AdmissionLimiter streamLimiter;
+  private final Duration retryAfter;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() == DispatcherType.ASYNC) {
+      // Admitted on the initial dispatch already
+      return true;
+    }
+
+    AdmissionLimiter limiter = isStreaming(handler) ? streamLimiter : isRead(request) ? readLimiter : writeLimiter;
+    AdmissionLimiter.Permit permit = limiter.tryAcquire()
+        .orElseThrow(() -> new ServiceOverloadedException("Too many concurrent " + limiter.getName() + ", please retry later", retryAfter));
+    request.setAttribute(PERMIT_ATTRIBUTE, permit);
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdmissionLimiter.Permit permit) {
+      request.removeAttribute(PERMIT_ATTRIBUTE);
+      permit.release(ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private static boolean isStreaming(Object handler) {
+    if (!(handler instanceof HandlerMethod handlerMethod)) {
+      return false;
+    }
+
+    ResolvableType returnType = ResolvableType.forMethodParameter(handlerMethod.getReturnType());
+    if (ResponseEntity.class.isAssignableFrom(returnType.toClass())) {
+      returnType = returnType.getGeneric(0);
+    }
+    Class<?> body = returnType.toClass();
+    return StreamingResponseBody.class.isAssignableFrom(body) || ResponseBodyEmitter.class.isAssignableFrom(body);
+  }
+
+  private static boolean isRead(HttpServletRequest request) {
+    HttpMethod method = HttpMethod.valueOf(request.getMethod());
+    return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+  }
+}
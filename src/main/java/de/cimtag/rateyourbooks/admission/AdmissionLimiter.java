@@ -0,0 +1,192 @@
+package de.cimtag.rateyourbooks.admission;
+
+import de.cimtag.rateyourbooks.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrent requests of one class of endpoints.
+ * <p>
+ * Requests are admitted while fewer than the current {@link VegasLimit} are in flight. Beyond that, a bounded number of requests waits a short time for a
+ * free slot, all others are rejected right away. Waiting uses a {@link ReentrantLock}, which does not pin virtual threads to their carrier.
+ * </p>
+ * <p>
+ * A limiter can also have a fixed limit, for endpoints whose latency depends on the size of the response rather than on the load, like exports.
+ * </p>
+ * <p>
+ * The limiter publishes the metrics {@code books.admission.limit}, {@code books.admission.inflight}, {@code books.admission.queued} and
+ * {@code books.admission.shed}, tagged with the class of endpoints.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public class AdmissionLimiter {
+
+  private final String name;
+  private final VegasLimit limit;
+  private final boolean adaptive;
+  private final int queueSize;
+  private final long queueTimeoutNanos;
+  private final Counter shedCounter;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+  private volatile int inFlight;
+  private volatile int queued;
+
+  /**
+   * Constructs a new AdmissionLimiter with an adaptive limit and registers its metrics.
+   *
+   * @param name          the class of endpoints limited, e.g. {@code reads}
+   * @param properties    the configuration of the limit
+   * @param meterRegistry the registry to publish the metrics to
+   */
+  public AdmissionLimiter(String name, AdmissionControlProperties.Limit properties, MeterRegistry meterRegistry) {
+    this(name, new VegasLimit(properties.initialLimit(), properties.minLimit(), properties.maxLimit()), true, properties.queueSize(),
+        properties.queueTimeout().toNanos(), meterRegistry);
+  }
+
+  /**
+   * Constructs a new AdmissionLimiter with a fixed limit and without a queue and registers its metrics.
+   *
+   * @param name          the class of endpoints limited, e.g. {@code streams}
+   * @param properties    the configuration of the limit
+   * @param meterRegistry the registry to publish the metrics to
+   */
+  public AdmissionLimiter(String name, AdmissionControlProperties.FixedLimit properties, MeterRegistry meterRegistry) {
+    this(name, new VegasLimit(properties.limit(), properties.limit(), properties.limit()), false, 0, 0, meterRegistry);
+  }
+
+  private AdmissionLimiter(String name, VegasLimit limit, boolean adaptive, int queueSize, long queueTimeoutNanos, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.limit = limit;
+    this.adaptive = adaptive;
+    this.queueSize = queueSize;
+    this.queueTimeoutNanos = queueTimeoutNanos;
+
+    Gauge.builder("books.admission.limit", limit, VegasLimit::getLimit)
+        .description("Current limit of concurrent requests")
+        .tag("endpoints", name)
+        .register(meterRegistry);
+    Gauge.builder("books.admission.inflight", this, AdmissionLimiter::getInFlight)
+        .description("Number of admitted requests in flight")
+        .tag("endpoints", name)
+        .register(meterRegistry);
+    Gauge.builder("books.admission.queued", this, AdmissionLimiter::getQueued)
+        .description("Number of requests waiting for admission")
+        .tag("endpoints", name)
+        .register(meterRegistry);
+    shedCounter = Counter.builder("books.admission.shed")
+        .description("Number of requests rejected because the limit of concurrent requests was reached")
+        .tag("endpoints", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Admits a request if the limit allows it, waiting for a free slot if the queue is not full.
+   *
+   * @return the permit of the admitted request, to be released when it completes, or an empty optional if the request is rejected
+   */
+  public Optional<Permit> tryAcquire() {
+    lock.lock();
+    try {
+      if (inFlight < limit.getLimit()) {
+        return Optional.of(admit());
+      }
+      if (queued >= queueSize) {
+        return shed();
+      }
+
+      queued++;
+      try {
+        long remainingNanos = queueTimeoutNanos;
+        while (inFlight >= limit.getLimit()) {
+          if (remainingNanos <= 0) {
+            return shed();
+          }
+          remainingNanos = slotFreed.awaitNanos(remainingNanos);
+        }
+        return Optional.of(admit());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return shed();
+      } finally {
+        queued--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getLimit() {
+    return limit.getLimit();
+  }
+
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  public int getQueued() {
+    return queued;
+  }
+
+  private Permit admit() {
+    inFlight++;
+    return new Permit(System.nanoTime(), inFlight);
+  }
+
+  private Optional<Permit> shed() {
+    shedCounter.increment();
+    return Optional.empty();
+  }
+
+  /**
+   * Admission of a single request.
+   */
+  public final class Permit {
+
+    private final long startNanos;
+    private final int inFlightAtStart;
+    private boolean released;
+
+    private Permit(long startNanos, int inFlightAtStart) {
+      this.startNanos = startNanos;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    /**
+     * Frees the slot of the request and adapts an adaptive limit to its latency. Further calls have no effect.
+     *
+     * @param dropped whether the request failed in a way that hints at overload
+     */
+    public void release(boolean dropped) {
+      lock.lock();
+      try {
+        if (released) {
+          return;
+        }
+        released = true;
+        inFlight--;
+        slotFreed.signal();
+      } finally {
+        lock.unlock();
+      }
+      if (adaptive) {
+        limit.onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name + " (limit " + limit.getLimit() + ", in flight " + inFlight + ", queued " + queued + ")";
+  }
+}
@@ -0,0 +1,107 @@
+package de.cimtag.rateyourbooks.admission;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Concurrency limit adapted to the measured latency, following TCP Vegas.
+ * <p>
+ * The limit is compared with the number of requests that would be queued given the lowest latency seen ({@code rttNoLoad}) and the latency of the
+ * current request: {@code queue = limit * (1 - rttNoLoad / rtt)}. While the estimated queue is short, the limit grows, once it gets long, the limit
+ * shrinks, so requests wait at the limiter, where they can be rejected cheaply, instead of inside the connection pool. Failed requests shrink the limit
+ * as well. The thresholds grow with the logarithm of the limit, so large limits are not adapted in tiny steps.
+ * </p>
+ * <p>
+ * The lowest latency drifts upwards when the data grows, so from time to time the next latency is taken as new lowest latency ("probing").
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public class VegasLimit {
+
+  private static final int ALPHA_FACTOR = 3;
+  private static final int BETA_FACTOR = 6;
+  private static final int PROBE_MULTIPLIER = 30;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  private volatile int limit;
+  private long rttNoLoadNanos;
+  private long probeCountdown;
+
+  /**
+   * Constructs a new VegasLimit.
+   *
+   * @param initialLimit the limit until the first latencies have been measured
+   * @param minLimit     the lowest limit
+   * @param maxLimit     the highest limit
+   */
+  public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+    this.probeCountdown = nextProbeCountdown(initialLimit);
+  }
+
+  /**
+   * Returns the current limit of concurrent requests.
+   *
+   * @return the current limit
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Adapts the limit to a completed request.
+   *
+   * @param rttNanos the time the request took
+   * @param inFlight the number of requests in flight when the request was admitted, including itself
+   * @param dropped  whether the request failed in a way that hints at overload, e.g. a timeout
+   */
+  public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (rttNanos <= 0) {
+      return;
+    }
+
+    if (--probeCountdown <= 0) {
+      probeCountdown = nextProbeCountdown(limit);
+      rttNoLoadNanos = rttNanos;
+      return;
+    }
+    if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+      rttNoLoadNanos = rttNanos;
+      return;
+    }
+
+    double currentLimit = limit;
+    double log = Math.max(1, Math.log10(currentLimit));
+    double newLimit;
+    if (dropped) {
+      newLimit = currentLimit - log;
+    } else if (inFlight * 2 < currentLimit) {
+      // The limit is not what keeps requests waiting, so the latencies say nothing about it
+      return;
+    } else {
+      double queue = Math.ceil(currentLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+      if (queue <= log) {
+        newLimit = currentLimit + BETA_FACTOR * log;
+      } else if (queue < ALPHA_FACTOR * log) {
+        newLimit = currentLimit + log;
+      } else if (queue > BETA_FACTOR * log) {
+        newLimit = currentLimit - log;
+      } else {
+        return;
+      }
+    }
+
+    limit = (int) Math.max(minLimit, Math.min(maxLimit, newLimit));
+  }
+
+  private static long nextProbeCountdown(int limit) {
+    return (long) (PROBE_MULTIPLIER * limit * ThreadLocalRandom.current().nextDouble(0.5, 1.0));
+  }
+}
@@ -0,0 +1,186 @@
+package de.cimtag.rateyourbooks.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.cimtag.rateyourbooks.config.BookCacheProperties;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded, expiring cache for book lookups.
+ * <p>
+ * The cache holds books by ID, by title and lists of books by author. Eviction is done by Caffeine's W-TinyLFU policy, entries expire after the configured
+ * TTL. Hit, miss and eviction counters of every cache are published to the {@link MeterRegistry} under the {@code cache.*} metrics.
+ * </p>
+ * <p>
+ * A load still running while books are evicted may have read them before the change. Evictions find the entries of a changed book under its previous
+ * title or author by scanning the cached values, which does not cover a load that stores its value after the scan. Every eviction therefore advances a
+ * generation, and a load during which the generation has moved on removes its value again once it is stored. The generation is shared by all keys, so
+ * an eviction also drops unrelated loads running at the same time, which only costs a reload as writes are rare compared to reads.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@ConditionalOnProperty(prefix = "rateyourbooks.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BookCache {
+
+  private final Cache<Long, BookDto> booksById;
+  private final Cache<String, BookDto> booksByTitle;
+  private final Cache<String, List<BookDto>> booksByAuthor;
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Constructs the book caches and registers their metrics.
+   *
+   * @param properties    the cache configuration
+   * @param meterRegistry the registry to publish the cache metrics to
+   */
+  public BookCache(BookCacheProperties properties, MeterRegistry meterRegistry) {
+    booksById = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .<Long, BookDto>build(), "books.byId");
+    booksByTitle = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .<String, BookDto>build(), "books.byTitle");
+    booksByAuthor = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumWeight(properties.maximumSize())
+        .<String, List<BookDto>>weigher((author, books) -> books.size() + 1)
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build(), "books.byAuthor");
+  }
+
+  /**
+   * Returns the book with the given ID, loading it on a cache miss.
+   *
+   * @param id     the ID of the book
+   * @param loader the function loading the book from the database
+   * @return the book with the given ID
+   */
+  public BookDto getById(Long id, Function<Long, BookDto> loader) {
+    return get(booksById, id, loader);
+  }
+
+  /**
+   * Returns the book with the given title, loading it on a cache miss.
+   *
+   * @param title  the title of the book
+   * @param loader the function loading the book from the database
+   * @return the book with the given title
+   */
+  public BookDto getByTitle(String title, Function<String, BookDto> loader) {
+    return get(booksByTitle, title, loader);
+  }
+
+  /**
+   * Returns all books of the given author, loading them on a cache miss.
+   *
+   * @param author the author of the books
+   * @param loader the function loading the books from the database
+   * @return the books of the given author
+   */
+  public List<BookDto> getByAuthor(String author, Function<String, List<BookDto>> loader) {
+    return get(booksByAuthor, author, loader);
+  }
+
+  /**
+   * Evicts every entry that may contain the given book.
+   * <p>
+   * Besides the entries stored under the book's ID, title and author, this evicts entries that still reference the book under a previous title or
+   * author. Those are found by scanning the cached values, which is acceptable as writes are rare compared to reads.
+   * </p>
+   *
+   * @param id     the ID of the changed book, or {@code null} for a newly created book
+   * @param title  the current title of the book, or {@code null} if unknown
+   * @param author the current author of the book, or {@code null} if unknown
+   */
+  public void evict(Long id, String title, String author) {
+    log.debug("Evicting cached entries of book with ID '{}'", id);
+    generation.incrementAndGet();
+
+    if (id != null) {
+      booksById.invalidate(id);
+      booksByTitle.asMap().values().removeIf(book -> id.equals(book.id()));
+      booksByAuthor.asMap().values().removeIf(books -> books.stream().anyMatch(book -> id.equals(book.id())));
+    }
+    if (title != null) {
+      booksByTitle.invalidate(title);
+    }
+    if (author != null) {
+      booksByAuthor.invalidate(author);
+    }
+  }
+
+  /**
+   * Evicts every entry that may contain the given book.
+   *
+   * @param book the changed book
+   * @see #evict(Long, String, String)
+   */
+  public void evict(BookDto book) {
+    Objects.requireNonNull(book);
+    evict(book.id(), book.title(), book.author());
+  }
+
+  /**
+   * Evicts every entry that may contain one of the given books.
+   * <p>
+   * The cached values are scanned only once for all books, which keeps batch writes cheap.
+   * </p>
+   *
+   * @param books the changed books, each with at least an ID or a title and author
+   * @see #evict(Long, String, String)
+   */
+  public void evict(Collection<BookDto> books) {
+    log.debug("Evicting cached entries of {} books", books.size());
+    generation.incrementAndGet();
+
+    Set<Long> ids = books.stream().map(BookDto::id).filter(Objects::nonNull).collect(Collectors.toSet());
+    if (!ids.isEmpty()) {
+      booksById.invalidateAll(ids);
+      booksByTitle.asMap().values().removeIf(book -> ids.contains(book.id()));
+      booksByAuthor.asMap().values().removeIf(cachedBooks -> cachedBooks.stream().anyMatch(book -> ids.contains(book.id())));
+    }
+    booksByTitle.invalidateAll(books.stream().map(BookDto::title).filter(Objects::nonNull).toList());
+    booksByAuthor.invalidateAll(books.stream().map(BookDto::author).filter(Objects::nonNull).toList());
+  }
+
+  /**
+   * Evicts all entries.
+   */
+  public void evictAll() {
+    log.debug("Evicting all cached books");
+    generation.incrementAndGet();
+
+    booksById.invalidateAll();
+    booksByTitle.invalidateAll();
+    booksByAuthor.invalidateAll();
+  }
+
+  private <K, V> V get(Cache<K, V> cache, K key, Function<K, V> loader) {
+    long loadGeneration = generation.get();
+    V value = cache.get(key, loader);
+    // An eviction since the start may have scanned the cache before the value was stored, the value may predate the change
+    if (generation.get() != loadGeneration) {
+      cache.asMap().remove(key, value);
+    }
+    return value;
+  }
+}
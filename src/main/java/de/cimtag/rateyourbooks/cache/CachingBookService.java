@@ -0,0 +1,180 @@
+package de.cimtag.rateyourbooks.cache;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import de.cimtag.rateyourbooks.service.BookService;
+import de.cimtag.rateyourbooks.service.BookServiceImpl;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read-through caching decorator of the {@link BookServiceImpl}.
+ * <p>
+ * Lookups by ID, by title and by author are served from the {@link BookCache}. Every write evicts exactly the entries that may contain the changed book.
+ * The decorator is used instead of Spring's {@code @Cacheable} because precise eviction needs the previous title and author of a changed book, which are
+ * not part of the method arguments.
+ * </p>
+ * <p>
+ * Changes made by other instances of the application arrive as remote events and evict the same entries.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "rateyourbooks.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CachingBookService implements BookService {
+
+  private final BookServiceImpl bookService;
+  private final BookCache bookCache;
+
+  @Override
+  public BookDto findBookById(Long id) {
+    return bookCache.getById(id, bookService::findBookById);
+  }
+
+  @Override
+  public BookDto findBookByTitle(String title) {
+    return bookCache.getByTitle(title, bookService::findBookByTitle);
+  }
+
+  @Override
+  public BookDto findBookByTitleAndAuthor(String title, String author) {
+    return bookService.findBookByTitleAndAuthor(title, author);
+  }
+
+  @Override
+  public List<BookDto> findAllBooksByAuthor(String author) {
+    return bookCache.getByAuthor(author, bookService::findAllBooksByAuthor);
+  }
+
+  @Override
+  public List<BookDto> findAllBooks() {
+    return bookService.findAllBooks();
+  }
+
+  @Override
+  public List<BookDto> searchBooksByTitle(String term, MatchMode matchMode, int limit) {
+    return bookService.searchBooksByTitle(term, matchMode, limit);
+  }
+
+  @Override
+  public List<BookDto> searchBooksByAuthor(String term, MatchMode matchMode, int limit) {
+    return bookService.searchBooksByAuthor(term, matchMode, limit);
+  }
+
+  @Override
+  public BookPageDto findBooksPage(Long after, int limit) {
+    return bookService.findBooksPage(after, limit);
+  }
+
+  @Override
+  public void streamAllBooks(Consumer<BookDto> consumer) {
+    bookService.streamAllBooks(consumer);
+  }
+
+  @Override
+  public BookDto createBook(BookDto bookDto) {
+    BookDto createdBook = bookService.createBook(bookDto);
+    bookCache.evict(null, createdBook.title(), createdBook.author());
+    return createdBook;
+  }
+
+  @Override
+  public List<BookDto> createBooks(List<BookDto> bookDtos) {
+    List<BookDto> createdBooks = bookService.createBooks(bookDtos);
+    bookCache.evict(createdBooks);
+    return createdBooks;
+  }
+
+  @Override
+  public void deleteBook(Long id) {
+    bookService.deleteBook(id);
+    bookCache.evict(id, null, null);
+  }
+
+  @Override
+  public void deleteBooks(List<Long> ids) {
+    bookService.deleteBooks(ids);
+    bookCache.evict(ids.stream().map(id -> BookDto.builder().id(id).build()).toList());
+  }
+
+  @Override
+  public BookDto updateBook(Long id, BookDto updatedBookDto) {
+    BookDto updatedBook = bookService.updateBook(id, updatedBookDto);
+    bookCache.evict(updatedBook);
+    return updatedBook;
+  }
+
+  @Override
+  public BookDto updateBook(Long id, BookDto updatedBookDto, Long expectedVersion) {
+    BookDto updatedBook = bookService.updateBook(id, updatedBookDto, expectedVersion);
+    bookCache.evict(updatedBook);
+    return updatedBook;
+  }
+
+  @Override
+  public BookDto patchBook(Long id, BookDto patchBookDto, Long expectedVersion) {
+    BookDto patchedBook = bookService.patchBook(id, patchBookDto, expectedVersion);
+    bookCache.evict(patchedBook);
+    return patchedBook;
+  }
+
+  @Override
+  public List<BookDto> updateBooks(List<BookDto> updatedBookDtos) {
+    List<BookDto> updatedBooks = bookService.updateBooks(updatedBookDtos);
+    bookCache.evict(updatedBooks);
+    return updatedBooks;
+  }
+
+  @Override
+  public BookImportResultDto importBooks(InputStream input, BulkFormat format, boolean merge) {
+    BookImportResultDto result = bookService.importBooks(input, format, merge);
+    // Imports are too large to evict book by book
+    bookCache.evictAll();
+    return result;
+  }
+
+  @Override
+  public long exportBooks(OutputStream output, BulkFormat format) {
+    return bookService.exportBooks(output, format);
+  }
+
+  /**
+   * Evicts the entries of books changed by another instance.
+   *
+   * @param event the event describing the changed books
+   */
+  @EventListener
+  public void onBooksChanged(BooksChangedEvent event) {
+    if (event.remote()) {
+      bookCache.evict(Stream.concat(event.savedBooks().stream(), event.deletedIds().stream().map(id -> BookDto.builder().id(id).build())).toList());
+    }
+  }
+
+  /**
+   * Evicts all entries after books have been imported by another instance.
+   *
+   * @param event the event describing the import
+   */
+  @EventListener
+  public void onBooksImported(BooksImportedEvent event) {
+    if (event.remote()) {
+      bookCache.evictAll();
+    }
+  }
+}
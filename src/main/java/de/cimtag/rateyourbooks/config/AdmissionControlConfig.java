@@ -0,0 +1,44 @@
+package de.cimtag.rateyourbooks.config;
+
+import de.cimtag.rateyourbooks.admission.AdmissionControlInterceptor;
+import de.cimtag.rateyourbooks.admission.AdmissionLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the admission control in front of the API endpoints.
+ * <p>
+ * Reads and writes are limited separately, so a burst of slow writes does not starve the reads, which are mostly served from the caches. Streaming
+ * endpoints like exports get a fixed limit of their own.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rateyourbooks.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+  private final AdmissionControlInterceptor interceptor;
+
+  /**
+   * Constructs the limiters of reads, writes and streams.
+   *
+   * @param properties    the configuration of the limits
+   * @param meterRegistry the registry to publish the metrics of the limiters to
+   */
+  public AdmissionControlConfig(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+    this.interceptor = new AdmissionControlInterceptor(new AdmissionLimiter("reads", properties.reads(), meterRegistry),
+        new AdmissionLimiter("writes", properties.writes(), meterRegistry), new AdmissionLimiter("streams", properties.streams(), meterRegistry),
+        properties.retryAfter());
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+  }
+}
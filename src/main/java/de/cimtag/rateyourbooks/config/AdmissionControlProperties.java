@@ -0,0 +1,55 @@
+package de.cimtag.rateyourbooks.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the admission control of the API endpoints.
+ *
+ * @param enabled    whether the number of concurrent requests is limited
+ * @param retryAfter the time clients are asked to wait before retrying a rejected request
+ * @param reads      the limit of concurrent reading requests
+ * @param writes     the limit of concurrent writing requests
+ * @param streams    the limit of concurrent streaming requests, e.g. exports
+ * @author Niklas Witzel
+ */
+@ConfigurationProperties(prefix = "rateyourbooks.admission")
+public record AdmissionControlProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1s") Duration retryAfter,
+    @DefaultValue Limit reads,
+    @DefaultValue Limit writes,
+    @DefaultValue FixedLimit streams
+) {
+
+  /**
+   * Adaptive limit of concurrent requests of one class of endpoints.
+   *
+   * @param initialLimit the limit at startup, adapted to the measured latencies afterwards
+   * @param minLimit     the limit is never lowered below this value
+   * @param maxLimit     the limit is never raised above this value
+   * @param queueSize    the number of requests waiting for a free slot, further requests are rejected immediately
+   * @param queueTimeout the time a request waits for a free slot before it is rejected
+   */
+  public record Limit(
+      @DefaultValue("20") int initialLimit,
+      @DefaultValue("4") int minLimit,
+      @DefaultValue("200") int maxLimit,
+      @DefaultValue("50") int queueSize,
+      @DefaultValue("50ms") Duration queueTimeout
+  ) {
+
+  }
+
+  /**
+   * Fixed limit of concurrent requests of one class of endpoints. Requests beyond the limit are rejected immediately.
+   *
+   * @param limit the number of concurrent requests
+   */
+  public record FixedLimit(
+      @DefaultValue("4") int limit
+  ) {
+
+  }
+}
@@ -0,0 +1,10 @@
+package de.cimtag.rateyourbooks.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BookCacheProperties.class)
+public class BookCacheConfig {
+
+}
@@ -0,0 +1,22 @@
+package de.cimtag.rateyourbooks.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the book cache.
+ *
+ * @param enabled     whether book lookups are cached
+ * @param maximumSize the maximum number of books held by each cache
+ * @param ttl         the time after which a cached entry expires
+ * @author Niklas Witzel
+ */
+@ConfigurationProperties(prefix = "rateyourbooks.cache")
+public record BookCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10000") long maximumSize,
+    @DefaultValue("10m") Duration ttl
+) {
+
+}
@@ -0,0 +1,69 @@
+package de.cimtag.rateyourbooks.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.cimtag.rateyourbooks.routing.ReplicaRoutingDataSource;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured data source by one routing read-only transactions to read replicas.
+ * <p>
+ * The primary pool is configured by the regular {@code spring.datasource.*} properties, the replica pools copy its pool settings and are read-only.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rateyourbooks.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, DataSourceProperties dataSourceProperties,
+      DataSourceRoutingProperties properties) {
+    List<DataSource> replicas = IntStream.range(0, properties.replicas().size())
+        .mapToObj(index -> (DataSource) replicaDataSource(index, properties.replicas().get(index), primaryDataSource, dataSourceProperties))
+        .toList();
+    return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.readYourWritesWindow(), properties.maxReplicationLag());
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    // Defers fetching the connection until the first statement, when the read-only flag of the transaction is known
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  private static HikariDataSource replicaDataSource(int index, DataSourceRoutingProperties.Replica replica, HikariDataSource primary,
+      DataSourceProperties dataSourceProperties) {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setPoolName("replica-" + index);
+    dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+    dataSource.setJdbcUrl(Objects.requireNonNull(replica.url(), "The URL of replica " + index + " is not set"));
+    dataSource.setUsername(replica.username() != null ? replica.username() : primary.getUsername());
+    dataSource.setPassword(replica.password() != null ? replica.password() : primary.getPassword());
+    dataSource.setMaximumPoolSize(primary.getMaximumPoolSize());
+    dataSource.setConnectionTimeout(primary.getConnectionTimeout());
+    dataSource.setDataSourceProperties(primary.getDataSourceProperties());
+    dataSource.setReadOnly(true);
+    // Lets the application start while a replica is down, the health check takes it out of the rotation
+    dataSource.setInitializationFailTimeout(-1);
+    return dataSource;
+  }
+}
@@ -0,0 +1,42 @@
+package de.cimtag.rateyourbooks.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for routing read-only transactions to read replicas.
+ *
+ * @param enabled              whether read-only transactions are routed to the replicas
+ * @param replicas             the connection settings of the replicas
+ * @param readYourWritesWindow the time after a change of books during which the reads of the changing client stay on the primary, so it sees its change
+ *                             despite replication lag
+ * @param healthCheckInterval  the interval at which the availability and replication lag of the replicas is checked
+ * @param maxReplicationLag    the replication lag above which a replica receives no reads until it has caught up
+ * @author Niklas Witzel
+ */
+@ConfigurationProperties(prefix = "rateyourbooks.datasource.routing")
+public record DataSourceRoutingProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Replica> replicas,
+    @DefaultValue("2s") Duration readYourWritesWindow,
+    @DefaultValue("5s") Duration healthCheckInterval,
+    @DefaultValue("10s") Duration maxReplicationLag
+) {
+
+  /**
+   * Connection settings of a read replica.
+   *
+   * @param url      the JDBC URL of the replica
+   * @param username the user to connect as, the primary's user if not set
+   * @param password the password of the user, the primary's password if not set
+   */
+  public record Replica(
+      String url,
+      String username,
+      String password
+  ) {
+
+  }
+}
@@ -0,0 +1,42 @@
+package de.cimtag.rateyourbooks.config;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the application's logging.
+ *
+ * @param async             the configuration of the asynchronous log appenders
+ * @param maxPayloadLength  the maximum number of characters of a request or response payload written to the log
+ * @param maxLoggedIds      the maximum number of book IDs written to the log for a list of books
+ * @param defaultSampleRate the fraction of requests logged for endpoints without a sample rate of their own
+ * @param sampleRates       the fraction of requests logged, by endpoint (controller method name)
+ * @author Niklas Witzel
+ */
+@ConfigurationProperties(prefix = "rateyourbooks.logging")
+public record LoggingProperties(
+    @DefaultValue Async async,
+    @DefaultValue("200") int maxPayloadLength,
+    @DefaultValue("20") int maxLoggedIds,
+    @DefaultValue("1.0") double defaultSampleRate,
+    @DefaultValue Map<String, Double> sampleRates
+) {
+
+  /**
+   * Configuration of the asynchronous log appenders.
+   *
+   * @param enabled             whether log events are written asynchronously
+   * @param queueSize           the capacity of the ring buffer between the logging threads and the appender thread
+   * @param discardingThreshold the remaining capacity below which TRACE, DEBUG and INFO events are discarded, 0 to never discard by level
+   * @param neverBlock          whether events are dropped instead of blocking the logging thread when the ring buffer is full
+   */
+  public record Async(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("8192") int queueSize,
+      @DefaultValue("0") int discardingThreshold,
+      @DefaultValue("true") boolean neverBlock
+  ) {
+
+  }
+}
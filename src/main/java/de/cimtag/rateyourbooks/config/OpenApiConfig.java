@@ -4,7 +4,11 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
+import io.swagger.v3.oas.models.media.Content;
+import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 
 @Configuration
 @OpenAPIDefinition(
@@ -25,4 +29,29 @@ import org.springframework.context.annotation.Configuration;
 )
 public class OpenApiConfig {
 
+  /**
+   * Documents every JSON request and response body as available in CBOR as well.
+   * <p>
+   * CBOR bodies are encoded from the same DTOs as JSON, so they share their schemas.
+   * </p>
+   *
+   * @return the customizer adding the CBOR media type
+   */
+  @Bean
+  public OpenApiCustomizer cborMediaTypeCustomizer() {
+    return openApi -> openApi.getPaths().values().forEach(path -> path.readOperations().forEach(operation -> {
+      if (operation.getRequestBody() != null) {
+        addCbor(operation.getRequestBody().getContent());
+      }
+      if (operation.getResponses() != null) {
+        operation.getResponses().values().forEach(response -> addCbor(response.getContent()));
+      }
+    }));
+  }
+
+  private static void addCbor(Content content) {
+    if (content != null && content.get(MediaType.APPLICATION_JSON_VALUE) != null) {
+      content.addMediaType(MediaType.APPLICATION_CBOR_VALUE, content.get(MediaType.APPLICATION_JSON_VALUE));
+    }
+  }
 }
@@ -0,0 +1,50 @@
+package de.cimtag.rateyourbooks.config;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportRejectDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.ErrorResponseDto;
+import de.cimtag.rateyourbooks.notification.BookChangeNotification;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Runtime hints for the GraalVM native image.
+ * <p>
+ * Spring's AOT processing derives most hints itself, e.g. for entities, configuration properties and the request and response bodies of controllers.
+ * This registrar covers what it cannot see: classes instantiated by name inside queries, types mapped by an {@code ObjectMapper} outside of controllers,
+ * dynamic proxies created by the data source routing and the generated classes Caffeine picks by name for the configuration of the {@code BookCache}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public class RateYourBooksRuntimeHints implements RuntimeHintsRegistrar {
+
+  // Caffeine selects its cache and node implementations by name: strong keys and values, statistics, maximum size or weight, expire after write
+  private static final String[] CAFFEINE_CLASSES = {
+      "com.github.benmanes.caffeine.cache.SSSMSW",
+      "com.github.benmanes.caffeine.cache.SSSMWW",
+      "com.github.benmanes.caffeine.cache.PSWMS",
+      "com.github.benmanes.caffeine.cache.PSWMW"
+  };
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    // Instantiated by Hibernate for the "select new" queries of the BookRepository
+    hints.reflection().registerType(BookDto.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+    // Written and read with an ObjectMapper by the exporter, the NDJSON stream and the change notifications
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+        BookDto.class, BookImportResultDto.class, BookImportRejectDto.class, ErrorResponseDto.class, BookChangeNotification.class);
+
+    // Connections handed out lazily by the LazyConnectionDataSourceProxy in front of the read replicas
+    hints.proxies().registerJdkProxy(ConnectionProxy.class);
+
+    for (String caffeineClass : CAFFEINE_CLASSES) {
+      hints.reflection().registerTypeIfPresent(classLoader, caffeineClass, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package de.cimtag.rateyourbooks.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Web MVC configuration adding CBOR as a compact binary alternative to JSON.
+ * <p>
+ * Clients sending {@code Accept: application/cbor} get their responses encoded as CBOR, with the same field names and Jackson configuration as JSON. The
+ * converter is declared as a bean, so Spring Boot puts it in place of Spring MVC's default CBOR converter, which is built without Boot's Jackson
+ * customizations. The default converters keep their order, so JSON stays the format for clients accepting anything.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Configuration
+public class WebConfig {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.createXmlMapper(false).factory(new CBORFactory()).build());
+  }
+}
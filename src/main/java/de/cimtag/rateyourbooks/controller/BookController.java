@@ -1,31 +1,79 @@
 package de.cimtag.rateyourbooks.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.BookSearchHitDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
 import de.cimtag.rateyourbooks.dto.ErrorResponseDto;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import de.cimtag.rateyourbooks.dto.RatingDto;
 import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.exception.BookVersionMismatchException;
+import de.cimtag.rateyourbooks.logging.RequestLogging;
+import de.cimtag.rateyourbooks.monitoring.BookMetrics;
+import de.cimtag.rateyourbooks.rating.BookRatings;
+import de.cimtag.rateyourbooks.search.BookSearchIndex;
 import de.cimtag.rateyourbooks.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for managing books.
+ * <p>
+ * Single books and lists of books are sent with an {@code ETag} derived from the IDs and versions of the books and a {@code Last-Modified} header.
+ * Conditional GET requests whose {@code If-None-Match} or {@code If-Modified-Since} header still matches are answered with 304 Not Modified before the body
+ * is serialized. Updates honor an {@code If-Match} header carrying the ETag of the book the changes are based on.
+ * </p>
+ * <p>
+ * Books are served as JSON or CBOR from the same URLs, so every negotiated response carries {@code Vary: Accept} and the ETag names the format: the CBOR
+ * ETags end with {@value #CBOR_ETAG_SUFFIX}. Shared caches thus keep the formats apart, and a conditional request only matches the format it was made for.
+ * </p>
+ * <p>
+ * All returned books carry their current rating count and average. The ratings are not part of the {@code ETag} and {@code Last-Modified} validators:
+ * they are aggregated in memory per instance and change far more often than the books, so validators covering them would differ between instances and
+ * miss on nearly every conditional request. As the same validator then stands for bodies with different ratings, the ETags of responses including
+ * ratings are weak, like {@code W/"1-0"}. A 304 Not Modified therefore tells the client that the book is unchanged, its ratings may have moved on.
+ * {@code If-Match} headers are compared by the ID and version they carry, whether the ETag is weak or not.
+ * </p>
  *
  * @author Niklas Witzel
  * @version 1.0
@@ -36,13 +84,24 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class BookController {
 
+  private static final int MAX_PAGE_LIMIT = 1000;
+  private static final String CBOR_ETAG_SUFFIX = "-cbor";
+  private static final Pattern BOOK_ETAG_PATTERN = Pattern.compile("(?:W/)?\"(\\d+)-(\\d+)(?:" + CBOR_ETAG_SUFFIX + ")?\"");
+
   private final BookService bookService;
+  private final ObjectMapper objectMapper;
+  private final BookMetrics bookMetrics;
+  private final RequestLogging requestLogging;
+  private final BookSearchIndex bookSearchIndex;
+  private final BookRatings bookRatings;
+  private final ContentNegotiationManager contentNegotiationManager;
 
   /**
    * Searches for books by title and/or author.
    *
-   * @param title  the title of the book to search for (optional)
-   * @param author the author of the book to search for (optional)
+   * @param title   the title of the book to search for (optional)
+   * @param author  the author of the book to search for (optional)
+   * @param request the request, to tell the negotiated format
    * @return a list of books matching the search criteria
    */
   @Operation(summary = "Search for books by title and/or author")
@@ -54,33 +113,249 @@ public class BookController {
       )
   })
   @GetMapping
-  public ResponseEntity<List<BookDto>> searchBooks(@RequestParam(required = false) String title, @RequestParam(required = false) String author) {
-    log.info("Searching books with title '{}' and author '{}'", title, author);
+  public ResponseEntity<List<BookDto>> searchBooks(@RequestParam(required = false) String title, @RequestParam(required = false) String author,
+      NativeWebRequest request) {
+    boolean logged = requestLogging.isSampled("searchBooks");
+    if (logged) {
+      log.info("Searching books with title '{}' and author '{}'", title, author);
+    }
 
     List<BookDto> result;
     if (title != null && !title.isBlank()) {
       if (author != null && !author.isBlank()) {
         result = List.of(bookService.findBookByTitleAndAuthor(title, author));
-        log.info("Found books with title '{}' and author '{}': {}", title, author, result);
+        bookMetrics.recordResultSize("title_author", result.size());
+        if (logged) {
+          log.info("Found books with title '{}' and author '{}': {}", title, author, requestLogging.summarize(result));
+        }
       } else {
         result = List.of(bookService.findBookByTitle(title));
-        log.info("Found books with title '{}': {}", title, result);
+        bookMetrics.recordResultSize("title", result.size());
+        if (logged) {
+          log.info("Found books with title '{}': {}", title, requestLogging.summarize(result));
+        }
       }
     } else if (author != null && !author.isBlank()) {
       result = bookService.findAllBooksByAuthor(author);
-      log.info("Found books with author '{}': {}", author, result);
+      bookMetrics.recordResultSize("author", result.size());
+      if (logged) {
+        log.info("Found books with author '{}': {}", author, requestLogging.summarize(result));
+      }
     } else {
       result = bookService.findAllBooks();
-      log.info("Found all books: {}", result);
+      bookMetrics.recordResultSize("all", result.size());
+      if (logged) {
+        log.info("Found all books: {}", requestLogging.summarize(result));
+      }
     }
 
-    return ResponseEntity.ok(result);
+    return conditionalResponse(bookRatings.withRatings(result), eTagSuffix(request));
+  }
+
+  /**
+   * Searches the titles and authors of all books for the given words, ranked by relevance.
+   * <p>
+   * The search is answered from the in-memory search index without querying the database. Words are matched ignoring case and umlaut spelling.
+   * </p>
+   *
+   * @param q     the words to search for
+   * @param limit the maximum number of books to return, capped at {@value #MAX_PAGE_LIMIT}
+   * @return the most relevant books with their relevance score, most relevant first
+   */
+  @Operation(summary = "Full-text search over titles and authors, ranked by relevance")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Found books matching the search words",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookSearchHitDto.class))}
+      )
+  })
+  @GetMapping("/search")
+  public ResponseEntity<List<BookSearchHitDto>> fullTextSearch(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+    int searchLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+    boolean logged = requestLogging.isSampled("fullTextSearch");
+    if (logged) {
+      log.info("Searching books for '{}' with limit {}", requestLogging.abbreviate(q), searchLimit);
+    }
+
+    List<BookSearchHitDto> result = bookSearchIndex.search(q, searchLimit).stream()
+        .map(hit -> BookSearchHitDto.builder().book(bookRatings.withRatings(hit.book())).score(hit.score()).build())
+        .toList();
+    bookMetrics.recordResultSize("search", result.size());
+    if (logged) {
+      log.info("Found {} books for '{}'", result.size(), requestLogging.abbreviate(q));
+    }
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(result);
+  }
+
+  /**
+   * Looks up books whose title or author matches a search term, ignoring case and umlaut spelling.
+   * <p>
+   * If both a title and an author are given, the title takes precedence.
+   * </p>
+   *
+   * @param title  the title search term (optional)
+   * @param author the author search term (optional)
+   * @param match  whether the value has to start with or contain the search term
+   * @param limit  the maximum number of books to return, capped at {@value #MAX_PAGE_LIMIT}
+   * @return a list of books matching the search term
+   */
+  @Operation(summary = "Look up books by title or author, ignoring case and umlaut spelling")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Found books matching the search term",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookDto.class))}
+      )
+  })
+  @GetMapping("/lookup")
+  public ResponseEntity<List<BookDto>> lookupBooks(@RequestParam(required = false) String title, @RequestParam(required = false) String author,
+      @RequestParam(defaultValue = "SUBSTRING") MatchMode match, @RequestParam(defaultValue = "50") int limit) {
+    int lookupLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+    boolean logged = requestLogging.isSampled("lookupBooks");
+    if (logged) {
+      log.info("Looking up books with title '{}' and author '{}' ({})", title, author, match);
+    }
+
+    List<BookDto> result;
+    if (title != null && !title.isBlank()) {
+      result = bookService.searchBooksByTitle(title.strip(), match, lookupLimit);
+      bookMetrics.recordResultSize("lookup_title", result.size());
+    } else if (author != null && !author.isBlank()) {
+      result = bookService.searchBooksByAuthor(author.strip(), match, lookupLimit);
+      bookMetrics.recordResultSize("lookup_author", result.size());
+    } else {
+      result = List.of();
+    }
+    if (logged) {
+      log.info("Found books with title '{}' and author '{}' ({}): {}", title, author, match, requestLogging.summarize(result));
+    }
+
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(bookRatings.withRatings(result));
+  }
+
+  /**
+   * Finds a page of books using keyset pagination.
+   * <p>
+   * Books are returned in ascending ID order. The {@code nextCursor} of the response is passed as {@code after} to fetch the following page. Pages are
+   * not filtered, so a title or author given together with the limit is rejected instead of being ignored.
+   * </p>
+   *
+   * @param limit  the maximum number of books on the page, capped at {@value #MAX_PAGE_LIMIT}
+   * @param after  the cursor returned with the previous page (optional)
+   * @param title  must not be given, only accepted to reject it
+   * @param author must not be given, only accepted to reject it
+   * @return the page of books and the cursor of the next page
+   * @throws IllegalArgumentException if a title or author is given
+   */
+  @Operation(summary = "Get a page of books ordered by ID")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Found the page of books",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookPageDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Title or author given together with the limit",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @GetMapping(params = "limit")
+  public ResponseEntity<BookPageDto> findBooksPage(@RequestParam int limit, @RequestParam(required = false) Long after,
+      @RequestParam(required = false) String title, @RequestParam(required = false) String author) {
+    if ((title != null && !title.isBlank()) || (author != null && !author.isBlank())) {
+      throw new IllegalArgumentException("Pages of books cannot be filtered by title or author, search without a limit instead!");
+    }
+    int pageLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+    boolean logged = requestLogging.isSampled("findBooksPage");
+    if (logged) {
+      log.info("Finding books page after ID '{}' with limit {}", after, pageLimit);
+    }
+    BookPageDto page = bookService.findBooksPage(after, pageLimit);
+    bookMetrics.recordResultSize("page", page.books().size());
+    if (logged) {
+      log.info("Found books after ID '{}', next cursor '{}': {}", after, page.nextCursor(), requestLogging.summarize(page.books()));
+    }
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(BookPageDto.builder()
+        .books(bookRatings.withRatings(page.books()))
+        .nextCursor(page.nextCursor())
+        .build());
+  }
+
+  /**
+   * Streams all books as newline-delimited JSON.
+   * <p>
+   * The books are written to the response while they are read from the database, so memory consumption stays flat regardless of the number of books.
+   * </p>
+   *
+   * @return a streaming response containing one JSON-encoded book per line
+   */
+  @Operation(summary = "Stream all books as newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Streaming all books",
+          content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BookDto.class))}
+      )
+  })
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+    log.info("Streaming all books");
+    StreamingResponseBody body = outputStream -> bookService.streamAllBooks(bookDto -> writeLine(outputStream, bookRatings.withRatings(bookDto)));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Exports all books as CSV or newline-delimited JSON, optionally gzip-compressed.
+   * <p>
+   * The books are read from a forward-only database cursor and written to the response as they arrive, so memory consumption stays flat regardless of
+   * the number of books. A client disconnecting cancels the running query.
+   * </p>
+   *
+   * @param format the format of the export
+   * @param gzip   whether the export is gzip-compressed
+   * @return a streaming response containing one book per line, ordered by ID
+   */
+  @Operation(summary = "Export all books as CSV or newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Exporting all books",
+          content = {
+              @Content(mediaType = "text/csv"),
+              @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BookDto.class)),
+              @Content(mediaType = "application/gzip")
+          }
+      )
+  })
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "NDJSON") BulkFormat format,
+      @RequestParam(defaultValue = "false") boolean gzip) {
+    log.info("Exporting books as {}{}", format, gzip ? " (gzip)" : "");
+    String fileName = "books." + format.name().toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+    StreamingResponseBody body = outputStream -> {
+      if (gzip) {
+        // Sync flush, so every flushed batch of books reaches the client instead of waiting in the compressor
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, true)) {
+          bookService.exportBooks(gzipOutputStream, format);
+        }
+      } else {
+        bookService.exportBooks(outputStream, format);
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(gzip ? MediaType.valueOf("application/gzip") : format.mediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+        .body(body);
   }
 
   /**
    * Finds a book by its ID.
    *
-   * @param id the ID of the book to find
+   * @param id      the ID of the book to find
+   * @param request the request, to tell the negotiated format
    * @return the book with the specified ID
    * @throws BookNotFoundException if no book with given ID can be found
    */
@@ -98,17 +373,23 @@ public class BookController {
       )
   })
   @GetMapping("/{id}")
-  public ResponseEntity<BookDto> findBookById(@PathVariable Long id) {
-    log.info("Finding book with ID '{}'", id);
+  public ResponseEntity<BookDto> findBookById(@PathVariable Long id, NativeWebRequest request) {
+    boolean logged = requestLogging.isSampled("findBookById");
+    if (logged) {
+      log.info("Finding book with ID '{}'", id);
+    }
     BookDto bookDto = bookService.findBookById(id);
-    log.info("Found book with ID '{}': {}", id, bookDto);
-    return ResponseEntity.ok(bookDto);
+    if (logged) {
+      log.info("Found book with ID '{}': {}", id, requestLogging.abbreviate(bookDto));
+    }
+    return conditionalResponse(bookRatings.withRatings(bookDto), eTagSuffix(request));
   }
 
   /**
    * Creates a new book.
    *
    * @param bookDto the details of the book to create
+   * @param request the request, to tell the negotiated format
    * @return the newly created book
    */
   @Operation(summary = "Create a new book")
@@ -117,14 +398,92 @@ public class BookController {
           responseCode = "201",
           description = "Book created successfully",
           content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Book with ID",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book with the same title and author exists",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
       )
   })
   @PostMapping
-  public ResponseEntity<BookDto> createNewBook(@RequestBody BookDto bookDto) {
-    log.info("Creating new book: {}", bookDto);
+  public ResponseEntity<BookDto> createNewBook(@RequestBody BookDto bookDto, NativeWebRequest request) {
+    log.info("Creating new book: {}", requestLogging.abbreviate(bookDto));
     BookDto createdBook = bookService.createBook(bookDto);
-    log.info("Created new book: {}", createdBook);
-    return ResponseEntity.created(URI.create("/api/books/" + createdBook.id())).body(createdBook);
+    log.info("Created new book with ID '{}'", createdBook.id());
+    return ResponseEntity.created(URI.create("/api/books/" + createdBook.id())).eTag(eTag(createdBook, eTagSuffix(request))).body(createdBook);
+  }
+
+  /**
+   * Creates several new books in one batch.
+   *
+   * @param bookDtos the details of the books to create
+   * @return the newly created books
+   */
+  @Operation(summary = "Create several new books in one batch")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "201",
+          description = "Books created successfully",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "At least one book with ID",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book with the same title and author exists",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @PostMapping("/batch")
+  public ResponseEntity<List<BookDto>> createNewBooks(@RequestBody List<BookDto> bookDtos) {
+    log.info("Creating {} new books", bookDtos.size());
+    List<BookDto> createdBooks = bookService.createBooks(bookDtos);
+    log.info("Created new books: {}", requestLogging.summarize(createdBooks));
+    return ResponseEntity.status(HttpStatus.CREATED).body(createdBooks);
+  }
+
+  /**
+   * Imports books in bulk from CSV or newline-delimited JSON.
+   * <p>
+   * The request body is streamed straight into the database with PostgreSQL's {@code COPY}, so imports of millions of books need neither one request
+   * per book nor memory proportional to their size. Invalid lines are rejected and reported without failing the import. Merging the same input again
+   * imports nothing, even while other imports or requests create the same books concurrently.
+   * </p>
+   *
+   * @param contentType the content type of the request body, {@code text/csv} or {@code application/x-ndjson}
+   * @param merge       whether books whose title and author are already in the catalog are skipped instead of inserted again
+   * @param body        the request body containing one book per line
+   * @return the number of imported, skipped and rejected books together with the first rejected lines
+   */
+  @Operation(summary = "Import books in bulk from CSV or newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Books imported",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookImportResultDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book with the same title and author exists and the import is not merged",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<BookImportResultDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      @RequestParam(defaultValue = "false") boolean merge, InputStream body) {
+    BulkFormat format = BulkFormat.of(MediaType.parseMediaType(contentType));
+    log.info("Importing books from {}", format);
+    BookImportResultDto result = bookService.importBooks(body, format, merge);
+    log.info("Imported {} books, skipped {}, rejected {}", result.imported(), result.skipped(), result.rejected());
+    return ResponseEntity.ok(result);
   }
 
   /**
@@ -154,12 +513,45 @@ public class BookController {
     return ResponseEntity.ok().build();
   }
 
+  /**
+   * Deletes several books in one batch.
+   *
+   * @param bookDtos the books to delete, identified by their IDs
+   * @return a response indicating the result of the deletion
+   */
+  @Operation(summary = "Delete several books in one batch")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Books deleted successfully",
+          content = @Content
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "At least one book not found",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @DeleteMapping("/batch")
+  public ResponseEntity<Void> deleteBooks(@RequestBody List<BookDto> bookDtos) {
+    log.info("Deleting {} books", bookDtos.size());
+    bookService.deleteBooks(bookDtos.stream().map(BookDto::id).toList());
+    log.info("Deleted books: {}", requestLogging.summarize(bookDtos));
+    return ResponseEntity.ok().build();
+  }
+
   /**
    * Updates an existing book.
+   * <p>
+   * If an {@code If-Match} header is given, the book is only updated if the header carries its current ETag.
+   * </p>
    *
    * @param id      the ID of the book to update
+   * @param ifMatch the ETag of the book the update is based on (optional)
    * @param bookDto the updated details of the book
+   * @param request the request, to tell the negotiated format
    * @return the updated book
+   * @throws BookVersionMismatchException if the book has been modified since the given ETag
    */
   @Operation(summary = "Update an existing book")
   @ApiResponses(value = {
@@ -172,13 +564,227 @@ public class BookController {
           responseCode = "404",
           description = "Book not found",
           content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book modified concurrently or book with the same title and author exists",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "412",
+          description = "Book modified since the given ETag",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
       )
   })
   @PutMapping("/{id}")
-  public ResponseEntity<BookDto> updateBook(@PathVariable Long id, @RequestBody BookDto bookDto) {
-    log.info("Updating book with ID '{}': {}", id, bookDto);
-    BookDto updatedBook = bookService.updateBook(id, bookDto);
-    log.info("Updated book with ID '{}': {}", id, updatedBook);
-    return ResponseEntity.ok(updatedBook);
+  public ResponseEntity<BookDto> updateBook(@PathVariable Long id, @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody BookDto bookDto, NativeWebRequest request) {
+    log.info("Updating book with ID '{}': {}", id, requestLogging.abbreviate(bookDto));
+    BookDto updatedBook = bookRatings.withRatings(bookService.updateBook(id, bookDto, expectedVersion(id, ifMatch)));
+    log.info("Updated book with ID '{}'", id);
+    return ResponseEntity.ok().eTag(eTag(updatedBook, eTagSuffix(request))).body(updatedBook);
+  }
+
+  /**
+   * Partially updates an existing book.
+   * <p>
+   * Only the title and author given in the request body are changed. The update is applied in a single statement without reading the book first, the
+   * updated book is read back afterwards. If an {@code If-Match} header is given, the book is only updated if the header carries its current ETag.
+   * </p>
+   *
+   * @param id      the ID of the book to update
+   * @param ifMatch the ETag of the book the update is based on (optional)
+   * @param bookDto the changed details of the book
+   * @param request the request, to tell the negotiated format
+   * @return the updated book
+   * @throws BookNotFoundException        if no book with given ID can be found
+   * @throws BookVersionMismatchException if the book has been modified since the given ETag
+   */
+  @Operation(summary = "Partially update an existing book")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Book updated successfully",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Book not found",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book with the same title and author exists",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "412",
+          description = "Book modified since the given ETag",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @PatchMapping("/{id}")
+  public ResponseEntity<BookDto> patchBook(@PathVariable Long id, @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody BookDto bookDto, NativeWebRequest request) {
+    log.info("Patching book with ID '{}': {}", id, requestLogging.abbreviate(bookDto));
+    BookDto patchedBook = bookRatings.withRatings(bookService.patchBook(id, bookDto, expectedVersion(id, ifMatch)));
+    log.info("Patched book with ID '{}'", id);
+    return ResponseEntity.ok().eTag(eTag(patchedBook, eTagSuffix(request))).body(patchedBook);
+  }
+
+  /**
+   * Rates a book.
+   * <p>
+   * The rating is aggregated in memory and written to the database with the next periodic flush, so it is accepted before it has been persisted.
+   * </p>
+   *
+   * @param id        the ID of the book to rate
+   * @param ratingDto the rating
+   * @return a response indicating that the rating has been accepted
+   * @throws BookNotFoundException if no book with given ID can be found
+   */
+  @Operation(summary = "Rate a book with 1 to 5 stars")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "202",
+          description = "Rating accepted",
+          content = @Content
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Score out of range",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Book not found",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @PostMapping("/{id}/ratings")
+  public ResponseEntity<Void> rateBook(@PathVariable Long id, @RequestBody RatingDto ratingDto) {
+    log.debug("Rating book with ID '{}' with score {}", id, ratingDto.score());
+    // Served from the book cache, so unknown books are rejected without a database round trip per rating
+    bookService.findBookById(id);
+    bookRatings.rate(id, ratingDto.score());
+    return ResponseEntity.accepted().build();
+  }
+
+  /**
+   * Updates several existing books in one batch.
+   *
+   * @param bookDtos the IDs and updated details of the books
+   * @return the updated books
+   */
+  @Operation(summary = "Update several existing books in one batch")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Books updated successfully",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = BookDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "At least one book without ID",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "At least one book not found",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "Book with the same title and author exists",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @PutMapping("/batch")
+  public ResponseEntity<List<BookDto>> updateBooks(@RequestBody List<BookDto> bookDtos) {
+    log.info("Updating {} books", bookDtos.size());
+    List<BookDto> updatedBooks = bookService.updateBooks(bookDtos);
+    log.info("Updated books: {}", requestLogging.summarize(updatedBooks));
+    return ResponseEntity.ok(updatedBooks);
+  }
+
+  private static ResponseEntity<BookDto> conditionalResponse(BookDto bookDto, String eTagSuffix) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).eTag(eTag(bookDto, eTagSuffix));
+    if (bookDto.lastModified() != null) {
+      response.lastModified(bookDto.lastModified());
+    }
+    return response.body(bookDto);
+  }
+
+  private static ResponseEntity<List<BookDto>> conditionalResponse(List<BookDto> bookDtos, String eTagSuffix) {
+    long hash = 1;
+    for (BookDto bookDto : bookDtos) {
+      hash = 31 * hash + Objects.hashCode(bookDto.id());
+      hash = 31 * hash + Objects.hashCode(bookDto.version());
+    }
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .varyBy(HttpHeaders.ACCEPT)
+        .eTag(eTag(bookDtos.stream().anyMatch(BookController::isRated), bookDtos.size() + "-" + Long.toHexString(hash) + eTagSuffix));
+    bookDtos.stream()
+        .map(BookDto::lastModified)
+        .filter(Objects::nonNull)
+        .max(Comparator.naturalOrder())
+        .ifPresent(response::lastModified);
+    return response.body(bookDtos);
+  }
+
+  private static String eTag(BookDto bookDto, String eTagSuffix) {
+    return eTag(isRated(bookDto), bookDto.id() + "-" + bookDto.version() + eTagSuffix);
+  }
+
+  private static String eTag(boolean rated, String tag) {
+    // The ratings are not covered by the tag, so bodies sharing it are equivalent but not byte-identical
+    return (rated ? "W/\"" : "\"") + tag + "\"";
+  }
+
+  private static boolean isRated(BookDto bookDto) {
+    return bookDto.ratingCount() != null;
+  }
+
+
+  /**
+   * Returns the suffix of the ETags of the format the response is negotiated to, the converter of JSON comes before the one of CBOR.
+   */
+  private String eTagSuffix(NativeWebRequest request) {
+    try {
+      // Sorted by quality and specificity, like the negotiation of the response
+      for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+        if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+          return "";
+        }
+        if (accepted.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+          return CBOR_ETAG_SUFFIX;
+        }
+      }
+    } catch (HttpMediaTypeNotAcceptableException e) {
+      // An invalid Accept header is rejected when the response is written
+    }
+    return "";
+  }
+
+  private static Long expectedVersion(Long id, String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+      return null;
+    }
+
+    Matcher matcher = BOOK_ETAG_PATTERN.matcher(ifMatch.strip());
+    if (!matcher.matches() || !matcher.group(1).equals(String.valueOf(id))) {
+      throw new BookVersionMismatchException("If-Match header " + ifMatch + " does not match book with ID '" + id + "'!");
+    }
+    return Long.valueOf(matcher.group(2));
+  }
+
+  private void writeLine(OutputStream outputStream, BookDto bookDto) {
+    try {
+      outputStream.write(objectMapper.writeValueAsBytes(bookDto));
+      outputStream.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -2,7 +2,12 @@ package de.cimtag.rateyourbooks.controller;
 
 import de.cimtag.rateyourbooks.dto.ErrorResponseDto;
 import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.exception.BookVersionMismatchException;
+import de.cimtag.rateyourbooks.exception.ServiceOverloadedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -43,6 +48,109 @@ public class BookControllerExceptionHandler extends ResponseEntityExceptionHandl
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
   }
 
+  /**
+   * Handles BookVersionMismatchException and returns a 412 Precondition Failed response.
+   *
+   * @param e the exception thrown when the {@code If-Match} header of a request does not match the current version of a book
+   * @return a ResponseEntity containing an {@link ErrorResponseDto} with details of the error
+   */
+  @ExceptionHandler(BookVersionMismatchException.class)
+  @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+  public ResponseEntity<ErrorResponseDto> handleBookVersionMismatchException(BookVersionMismatchException e) {
+    log.warn("BookVersionMismatchException: {}", e.getMessage());
+
+    ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+        .code(HttpStatus.PRECONDITION_FAILED)
+        .title("BOOK_VERSION_MISMATCH")
+        .detail(e.getMessage())
+        .build();
+
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+  }
+
+  /**
+   * Handles OptimisticLockingFailureException and returns a 409 Conflict response.
+   *
+   * @param e the exception thrown when a book has been modified concurrently while it was being updated
+   * @return a ResponseEntity containing an {@link ErrorResponseDto} with details of the error
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+    log.warn("OptimisticLockingFailureException: {}", e.getMessage());
+
+    ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+        .code(HttpStatus.CONFLICT)
+        .title("CONCURRENT_MODIFICATION")
+        .detail(e.getMessage())
+        .build();
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+  }
+
+  /**
+   * Handles DataIntegrityViolationException and returns a 409 Conflict response.
+   *
+   * @param e the exception thrown when a book with the same title and author, ignoring case and umlaut spelling, is already in the catalog
+   * @return a ResponseEntity containing an {@link ErrorResponseDto} with details of the error
+   */
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseEntity<ErrorResponseDto> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+    log.warn("DataIntegrityViolationException: {}", e.getMessage());
+
+    // The message of the exception contains the failed statement, which is not meant for clients
+    ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+        .code(HttpStatus.CONFLICT)
+        .title("BOOK_ALREADY_EXISTS")
+        .detail("A book with the same title and author already exists")
+        .build();
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+  }
+
+  /**
+   * Handles ServiceOverloadedException and returns a 503 Service Unavailable response with a {@code Retry-After} header.
+   *
+   * @param e the exception thrown when a request is rejected by the admission control
+   * @return a ResponseEntity containing an {@link ErrorResponseDto} with details of the error
+   */
+  @ExceptionHandler(ServiceOverloadedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ResponseEntity<ErrorResponseDto> handleServiceOverloadedException(ServiceOverloadedException e) {
+    // Logged at debug level only, as shedding load produces these in bulk
+    log.debug("ServiceOverloadedException: {}", e.getMessage());
+
+    ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+        .code(HttpStatus.SERVICE_UNAVAILABLE)
+        .title("SERVICE_OVERLOADED")
+        .detail(e.getMessage())
+        .build();
+
+    long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds)).body(errorResponse);
+  }
+
+  /**
+   * Handles IllegalArgumentException and returns a 400 Bad Request response.
+   *
+   * @param e the exception thrown when a request contains invalid values
+   * @return a ResponseEntity containing an {@link ErrorResponseDto} with details of the error
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ResponseEntity<ErrorResponseDto> handleIllegalArgumentException(IllegalArgumentException e) {
+    log.warn("IllegalArgumentException: {}", e.getMessage());
+
+    ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+        .code(HttpStatus.BAD_REQUEST)
+        .title("INVALID_REQUEST")
+        .detail(e.getMessage())
+        .build();
+
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+  }
+
   /**
    * Handles all other exceptions and returns a 500 Internal Server Error response.
    *
@@ -0,0 +1,116 @@
+package de.cimtag.rateyourbooks.controller;
+
+import de.cimtag.rateyourbooks.dto.ErrorResponseDto;
+import de.cimtag.rateyourbooks.dto.LeaderboardEntryDto;
+import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.rating.BookLeaderboard;
+import de.cimtag.rateyourbooks.rating.BookLeaderboard.RankedBook;
+import de.cimtag.rateyourbooks.rating.BookRatings;
+import de.cimtag.rateyourbooks.service.BookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the leaderboard of the best rated books.
+ *
+ * @author Niklas Witzel
+ * @version 1.0
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/leaderboard")
+@Slf4j
+public class LeaderboardController {
+
+  private static final int MAX_LIMIT = 100;
+
+  private final BookLeaderboard bookLeaderboard;
+  private final BookRatings bookRatings;
+  private final BookService bookService;
+
+  /**
+   * Finds the best rated books.
+   * <p>
+   * Books are ranked by their average rating, books with the same average by their number of ratings. Books without ratings are not ranked.
+   * </p>
+   *
+   * @param limit the maximum number of books to return, capped at {@value #MAX_LIMIT}
+   * @return the best rated books with their rank, best first
+   */
+  @Operation(summary = "Get the best rated books")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Found the best rated books",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = LeaderboardEntryDto.class))}
+      )
+  })
+  @GetMapping
+  public ResponseEntity<List<LeaderboardEntryDto>> findTopBooks(@RequestParam(defaultValue = "10") int limit) {
+    int topLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    log.debug("Finding the {} best rated books", topLimit);
+
+    List<LeaderboardEntryDto> result = bookLeaderboard.top(topLimit).stream()
+        .map(this::toEntry)
+        .flatMap(Optional::stream)
+        .toList();
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Finds the rank of a book.
+   *
+   * @param id the ID of the book
+   * @return the book with its rank
+   * @throws BookNotFoundException if no book with given ID can be found or the book has not been rated yet
+   */
+  @Operation(summary = "Get the rank of a book")
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Found the rank of the book",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = LeaderboardEntryDto.class))}
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Book not found or not rated yet",
+          content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))}
+      )
+  })
+  @GetMapping("/books/{id}")
+  public ResponseEntity<LeaderboardEntryDto> findBookRank(@PathVariable Long id) {
+    log.debug("Finding rank of book with ID '{}'", id);
+
+    RankedBook rankedBook = bookLeaderboard.rank(id)
+        .orElseThrow(() -> new BookNotFoundException("Book with ID '" + id + "' has not been rated yet!"));
+    return ResponseEntity.ok(LeaderboardEntryDto.builder()
+        .rank(rankedBook.rank())
+        .book(bookRatings.withRatings(bookService.findBookById(id)))
+        .build());
+  }
+
+  private Optional<LeaderboardEntryDto> toEntry(RankedBook rankedBook) {
+    try {
+      return Optional.of(LeaderboardEntryDto.builder()
+          .rank(rankedBook.rank())
+          .book(bookRatings.withRatings(bookService.findBookById(rankedBook.ranking().bookId())))
+          .build());
+    } catch (BookNotFoundException e) {
+      // The book has been deleted after the leaderboard was read
+      return Optional.empty();
+    }
+  }
+}
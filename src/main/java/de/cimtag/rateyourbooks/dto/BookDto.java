@@ -1,24 +1,45 @@
 package de.cimtag.rateyourbooks.dto;
 
 import de.cimtag.rateyourbooks.model.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
 import lombok.Builder;
 
 /**
  * Data Transfer Object for the Book entity.
  * <p>
- * This class is used to transfer data between layers of the application. It includes a method to convert the DTO to a Book entity.
+ * This class is used to transfer data between layers of the application. It includes a method to convert the DTO to a Book entity. The version, the
+ * last modification timestamp and the ratings are set by the server only and are not copied to the entity.
  * </p>
  *
  * @author Niklas Witzel
  */
-@Builder
+@Builder(toBuilder = true)
 public record BookDto(
     Long id,
     @NotNull String title,
-    @NotNull String author
+    @NotNull String author,
+    @Schema(accessMode = AccessMode.READ_ONLY) Long version,
+    @Schema(accessMode = AccessMode.READ_ONLY) Instant lastModified,
+    @Schema(accessMode = AccessMode.READ_ONLY) Long ratingCount,
+    @Schema(accessMode = AccessMode.READ_ONLY) Double averageRating
 ) {
 
+  /**
+   * Constructs a BookDto without ratings, used by the constructor expressions of the repository queries.
+   *
+   * @param id           the ID of the book
+   * @param title        the title of the book
+   * @param author       the author of the book
+   * @param version      the version of the book
+   * @param lastModified the time of the last modification of the book
+   */
+  public BookDto(Long id, String title, String author, Long version, Instant lastModified) {
+    this(id, title, author, version, lastModified, null, null);
+  }
+
   /**
    * Converts this {@link BookDto} to a {@link Book} entity.
    *
@@ -0,0 +1,18 @@
+package de.cimtag.rateyourbooks.dto;
+
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for a line rejected by the bulk import of books.
+ *
+ * @param line   the 1-based number of the rejected line
+ * @param reason why the line has been rejected
+ * @author Niklas Witzel
+ */
+@Builder
+public record BookImportRejectDto(
+    long line,
+    String reason
+) {
+
+}
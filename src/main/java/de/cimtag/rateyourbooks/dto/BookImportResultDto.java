@@ -0,0 +1,26 @@
+package de.cimtag.rateyourbooks.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for the result of a bulk import of books.
+ * <p>
+ * Only the first rejected lines are reported in {@code rejects}, {@code rejected} counts all of them.
+ * </p>
+ *
+ * @param imported the number of books inserted into the catalog
+ * @param skipped  the number of valid lines not inserted because the book already exists, only when merging
+ * @param rejected the number of invalid lines
+ * @param rejects  the first rejected lines with the reason of their rejection
+ * @author Niklas Witzel
+ */
+@Builder
+public record BookImportResultDto(
+    long imported,
+    long skipped,
+    long rejected,
+    List<BookImportRejectDto> rejects
+) {
+
+}
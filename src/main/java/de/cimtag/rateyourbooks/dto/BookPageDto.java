@@ -0,0 +1,21 @@
+package de.cimtag.rateyourbooks.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for a single page of books.
+ * <p>
+ * Pages are addressed by a keyset cursor: the ID of the last book of a page is handed back as {@code nextCursor} and passed as {@code after} to fetch
+ * the following page. {@code nextCursor} is {@code null} once the last page has been reached.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Builder
+public record BookPageDto(
+    List<BookDto> books,
+    Long nextCursor
+) {
+
+}
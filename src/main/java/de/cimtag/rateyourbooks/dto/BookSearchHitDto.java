@@ -0,0 +1,18 @@
+package de.cimtag.rateyourbooks.dto;
+
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for a book found by the full-text search.
+ *
+ * @param book  the found book
+ * @param score the BM25 relevance score of the book for the query, higher is more relevant
+ * @author Niklas Witzel
+ */
+@Builder
+public record BookSearchHitDto(
+    BookDto book,
+    double score
+) {
+
+}
@@ -0,0 +1,52 @@
+package de.cimtag.rateyourbooks.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Defines the formats of the bulk import and export of books.
+ *
+ * @author Niklas Witzel
+ */
+public enum BulkFormat {
+
+  /**
+   * One book per line as comma-separated values, optionally quoted and preceded by a header line.
+   */
+  CSV(MediaType.valueOf("text/csv")),
+
+  /**
+   * One JSON object per line.
+   */
+  NDJSON(MediaType.APPLICATION_NDJSON);
+
+  private final MediaType mediaType;
+
+  BulkFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Returns the media type of this format.
+   *
+   * @return the media type
+   */
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Returns the format of the given content type.
+   *
+   * @param contentType the content type of the data
+   * @return the matching format
+   * @throws IllegalArgumentException if the content type is not supported
+   */
+  public static BulkFormat of(MediaType contentType) {
+    for (BulkFormat format : values()) {
+      if (format.mediaType.isCompatibleWith(contentType)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported content type '" + contentType + "'!");
+  }
+}
@@ -0,0 +1,18 @@
+package de.cimtag.rateyourbooks.dto;
+
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for a book in the leaderboard of the best rated books.
+ *
+ * @param rank the 1-based rank of the book
+ * @param book the book with its ratings
+ * @author Niklas Witzel
+ */
+@Builder
+public record LeaderboardEntryDto(
+    int rank,
+    BookDto book
+) {
+
+}
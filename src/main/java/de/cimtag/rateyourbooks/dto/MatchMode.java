@@ -0,0 +1,22 @@
+package de.cimtag.rateyourbooks.dto;
+
+/**
+ * Defines how a search term is matched against book titles and authors.
+ * <p>
+ * Both modes ignore case and treat German umlauts and their transcriptions (e.g. "ü" and "ue") as equal.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public enum MatchMode {
+
+  /**
+   * The value has to start with the search term.
+   */
+  PREFIX,
+
+  /**
+   * The value has to contain the search term anywhere.
+   */
+  SUBSTRING
+}
@@ -0,0 +1,25 @@
+package de.cimtag.rateyourbooks.dto;
+
+import lombok.Builder;
+
+/**
+ * Data Transfer Object for a single rating of a book.
+ *
+ * @param score the score of the rating, from {@value #MIN_SCORE} to {@value #MAX_SCORE} stars
+ * @author Niklas Witzel
+ */
+@Builder
+public record RatingDto(
+    int score
+) {
+
+  /**
+   * The lowest possible score.
+   */
+  public static final int MIN_SCORE = 1;
+
+  /**
+   * The highest possible score.
+   */
+  public static final int MAX_SCORE = 5;
+}
@@ -0,0 +1,54 @@
+package de.cimtag.rateyourbooks.event;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import java.util.List;
+
+/**
+ * Event published after books have been created, updated or deleted.
+ * <p>
+ * Listeners keeping derived state, like the search index, apply the event once the surrounding transaction has been committed. Changes made by other
+ * instances of the application are published as remote events; they are applied the same way but not propagated again.
+ * </p>
+ *
+ * @param savedBooks the created or updated books in their new state
+ * @param deletedIds the IDs of the deleted books
+ * @param remote     whether the books have been changed by another instance
+ * @author Niklas Witzel
+ */
+public record BooksChangedEvent(
+    List<BookDto> savedBooks,
+    List<Long> deletedIds,
+    boolean remote
+) {
+
+  /**
+   * Creates an event for created or updated books.
+   *
+   * @param savedBooks the created or updated books in their new state
+   * @return the event
+   */
+  public static BooksChangedEvent saved(List<BookDto> savedBooks) {
+    return new BooksChangedEvent(savedBooks, List.of(), false);
+  }
+
+  /**
+   * Creates an event for deleted books.
+   *
+   * @param deletedIds the IDs of the deleted books
+   * @return the event
+   */
+  public static BooksChangedEvent deleted(List<Long> deletedIds) {
+    return new BooksChangedEvent(List.of(), deletedIds, false);
+  }
+
+  /**
+   * Creates an event for books changed by another instance.
+   *
+   * @param savedBooks the created or updated books in their new state
+   * @param deletedIds the IDs of the deleted books
+   * @return the event
+   */
+  public static BooksChangedEvent remote(List<BookDto> savedBooks, List<Long> deletedIds) {
+    return new BooksChangedEvent(savedBooks, deletedIds, true);
+  }
+}
@@ -0,0 +1,20 @@
+package de.cimtag.rateyourbooks.event;
+
+/**
+ * Event published after books have been bulk imported.
+ * <p>
+ * Unlike the {@link BooksChangedEvent} it does not carry the imported books, as an import may add millions of them. Listeners keeping derived state
+ * reload it from the database instead. Remote events are published for imports of other instances, and whenever changes of other instances may have
+ * been missed, e.g. while the change notifications were interrupted.
+ * </p>
+ *
+ * @param importedCount the number of imported books, 0 if unknown
+ * @param remote        whether the books have been imported by another instance
+ * @author Niklas Witzel
+ */
+public record BooksImportedEvent(
+    long importedCount,
+    boolean remote
+) {
+
+}
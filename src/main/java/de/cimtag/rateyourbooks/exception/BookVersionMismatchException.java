@@ -0,0 +1,18 @@
+package de.cimtag.rateyourbooks.exception;
+
+/**
+ * Exception thrown when a book has been modified since the version a client based its changes on.
+ *
+ * @author Niklas Witzel
+ */
+public class BookVersionMismatchException extends RuntimeException {
+
+  /**
+   * Constructs a new BookVersionMismatchException with the specified detail message.
+   *
+   * @param message the detail message
+   */
+  public BookVersionMismatchException(String message) {
+    super(message);
+  }
+}
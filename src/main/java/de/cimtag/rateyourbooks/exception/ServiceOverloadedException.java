@@ -0,0 +1,29 @@
+package de.cimtag.rateyourbooks.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a request is rejected because too many requests are being processed.
+ *
+ * @author Niklas Witzel
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+  /**
+   * The time the client should wait before retrying the request.
+   */
+  private final Duration retryAfter;
+
+  /**
+   * Constructs a new ServiceOverloadedException with the specified detail message.
+   *
+   * @param message    the detail message
+   * @param retryAfter the time the client should wait before retrying the request
+   */
+  public ServiceOverloadedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,142 @@
+package de.cimtag.rateyourbooks.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams all books from a forward-only JDBC cursor as CSV or NDJSON.
+ * <p>
+ * PostgreSQL only uses a server-side cursor inside a transaction, then the driver fetches {@value #FETCH_SIZE} rows at a time. Every row is written as
+ * soon as it has been read and the output is flushed after every fetch, so memory stays flat regardless of the number of books and clients receive data
+ * from the first fetch on. If writing fails, usually because the client disconnected, the running query is cancelled.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookExporter {
+
+  static final int FETCH_SIZE = 1_000;
+
+  private static final String CSV_HEADER = "id,title,author,version,last_modified";
+  private static final String SELECT_ALL_BOOKS = "SELECT id, title, author, version, last_modified FROM books ORDER BY id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Writes all books to the given output.
+   *
+   * @param output the output to write the books to, encoded in UTF-8; it is flushed but not closed
+   * @param format the format of the output
+   * @return the number of exported books
+   * @throws UncheckedIOException if the books cannot be written
+   */
+  @Transactional(readOnly = true)
+  public long exportBooks(OutputStream output, BulkFormat format) {
+    log.info("Exporting books as {}", format);
+
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    RowWriter rowWriter = new RowWriter(writer, format);
+    try {
+      if (format == BulkFormat.CSV) {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+      }
+      jdbcTemplate.query(connection -> {
+        PreparedStatement statement = connection.prepareStatement(SELECT_ALL_BOOKS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+      }, rowWriter);
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write exported books", e);
+    }
+
+    log.info("Exported {} books", rowWriter.rows);
+    return rowWriter.rows;
+  }
+
+  private void writeCsv(Writer writer, BookDto bookDto) throws IOException {
+    writer.write(String.valueOf(bookDto.id()));
+    writer.write(',');
+    writeCsvField(writer, bookDto.title());
+    writer.write(',');
+    writeCsvField(writer, bookDto.author());
+    writer.write(',');
+    writer.write(String.valueOf(bookDto.version()));
+    writer.write(',');
+    writer.write(bookDto.lastModified().toString());
+    writer.write('\n');
+  }
+
+  private static void writeCsvField(Writer writer, String value) throws IOException {
+    if (value != null) {
+      writer.write('"');
+      writer.write(value.replace("\"", "\"\""));
+      writer.write('"');
+    }
+  }
+
+  /**
+   * Writes every row of the cursor and flushes the output after every fetch.
+   */
+  private final class RowWriter implements RowCallbackHandler {
+
+    private final Writer writer;
+    private final BulkFormat format;
+    private long rows;
+
+    RowWriter(Writer writer, BulkFormat format) {
+      this.writer = writer;
+      this.format = format;
+    }
+
+    @Override
+    public void processRow(ResultSet resultSet) throws SQLException {
+      BookDto bookDto = BookDto.builder()
+          .id(resultSet.getLong("id"))
+          .title(resultSet.getString("title"))
+          .author(resultSet.getString("author"))
+          .version(resultSet.getLong("version"))
+          .lastModified(resultSet.getObject("last_modified", OffsetDateTime.class).toInstant())
+          .build();
+
+      try {
+        if (format == BulkFormat.CSV) {
+          writeCsv(writer, bookDto);
+        } else {
+          writer.write(objectMapper.writeValueAsString(bookDto));
+          writer.write('\n');
+        }
+        if (++rows % FETCH_SIZE == 0) {
+          writer.flush();
+        }
+      } catch (IOException e) {
+        log.warn("Cancelling export after {} books: {}", rows, e.getMessage());
+        resultSet.getStatement().cancel();
+        throw new UncheckedIOException("Could not write exported books", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package de.cimtag.rateyourbooks.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses and validates single lines of a bulk import.
+ * <p>
+ * Invalid lines are reported by an {@link IllegalArgumentException} whose message is the reason of the rejection.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class BookImportParser {
+
+  static final int MAX_LENGTH = 255;
+  // Two fields of MAX_LENGTH code points, each possibly doubled by surrogate pairs or escaping, plus the syntax and the other fields of exported lines
+  static final int MAX_LINE_LENGTH = 4 * MAX_LENGTH + 256;
+
+  private static final String CSV_HEADER = "title,author";
+
+  private final BulkFormat format;
+  private final ObjectMapper objectMapper;
+
+  BookImportParser(BulkFormat format, ObjectMapper objectMapper) {
+    this.format = format;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Returns whether the given line is the optional CSV header.
+   *
+   * @param line the first line of the import
+   * @return {@code true} if the line is a CSV header
+   */
+  boolean isHeader(String line) {
+    return format == BulkFormat.CSV && line.replace(" ", "").replace("\"", "").equalsIgnoreCase(CSV_HEADER);
+  }
+
+  /**
+   * Parses a line into a book.
+   *
+   * @param line the line to parse
+   * @return the book with its title and author
+   * @throws IllegalArgumentException if the line is invalid
+   */
+  BookDto parse(String line) {
+    if (line.length() > MAX_LINE_LENGTH) {
+      throw new IllegalArgumentException("The line is longer than " + MAX_LINE_LENGTH + " characters");
+    }
+
+    BookDto bookDto = switch (format) {
+      case CSV -> parseCsv(line);
+      case NDJSON -> parseJson(line);
+    };
+    return BookDto.builder()
+        .title(validate("title", bookDto.title()))
+        .author(validate("author", bookDto.author()))
+        .build();
+  }
+
+  private static BookDto parseCsv(String line) {
+    List<String> fields = new ArrayList<>(2);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+
+    if (fields.size() != 2) {
+      throw new IllegalArgumentException("Expected 2 fields but found " + fields.size());
+    }
+    return BookDto.builder()
+        .title(fields.get(0))
+        .author(fields.get(1))
+        .build();
+  }
+
+  private BookDto parseJson(String line) {
+    JsonNode node;
+    try {
+      node = objectMapper.readTree(line);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+    }
+    if (!node.isObject()) {
+      throw new IllegalArgumentException("Expected a JSON object");
+    }
+    return BookDto.builder()
+        .title(node.path("title").isTextual() ? node.get("title").asText() : null)
+        .author(node.path("author").isTextual() ? node.get("author").asText() : null)
+        .build();
+  }
+
+  private static String validate(String name, String value) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing " + name);
+    }
+    String stripped = value.strip();
+    if (stripped.codePointCount(0, stripped.length()) > MAX_LENGTH) {
+      throw new IllegalArgumentException("The " + name + " is longer than " + MAX_LENGTH + " characters");
+    }
+    if (stripped.indexOf('\0') >= 0) {
+      throw new IllegalArgumentException("The " + name + " contains a NUL character");
+    }
+    return stripped;
+  }
+}
@@ -0,0 +1,186 @@
+package de.cimtag.rateyourbooks.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportRejectDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Streams CSV or NDJSON into the {@code books} table with PostgreSQL's {@code COPY}.
+ * <p>
+ * The input is read line by line, every valid line is re-encoded as a quoted CSV row and handed to the {@link CopyManager} in chunks of
+ * {@value #COPY_CHUNK_SIZE} characters, so memory stays bounded regardless of the size of the import. Lines are read with a {@link BoundedLineReader}
+ * keeping at most {@value BookImportParser#MAX_LINE_LENGTH} characters, so an overlong line is rejected instead of being buffered completely. Invalid
+ * lines are counted and the first {@value #MAX_REPORTED_REJECTS} of them are reported with their reason. The whole import runs in one transaction.
+ * </p>
+ * <p>
+ * The rows are copied into a temporary staging table and inserted into {@code books} from there with a single statement. IDs are taken from blocks of
+ * {@code books_seq}, exactly like the pooled-lo optimizer Hibernate uses for the entity does, so imported books get dense IDs that never collide with
+ * the ones Hibernate hands out. When merging, books whose title and author are already in the catalog are skipped, duplicates within the import included.
+ * Title and author are compared like the {@code uq_books_title_author_folded} index does, ignoring case and umlaut spelling. As books inserted by
+ * concurrent imports or requests are not visible to that check, the insert skips them with {@code ON CONFLICT DO NOTHING} on the index, so merging
+ * stays idempotent. Without merging, an import containing a book already in the catalog fails as a whole.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookImporter {
+
+  static final int MAX_REPORTED_REJECTS = 100;
+
+  private static final int COPY_CHUNK_SIZE = 64 * 1024;
+  private static final long PROGRESS_INTERVAL = 100_000;
+
+  // Matches the allocation size of books_seq used by the Book entity
+  private static final int ID_BLOCK_SIZE = 50;
+
+  private static final String CREATE_STAGING_TABLE =
+      "CREATE TEMPORARY TABLE books_import (line BIGINT, title VARCHAR(255), author VARCHAR(255)) ON COMMIT DROP";
+  private static final String COPY_INTO_STAGING_TABLE = "COPY books_import (line, title, author) FROM STDIN WITH (FORMAT csv)";
+  private static final String ALL_STAGED_BOOKS = "SELECT title, author, line FROM books_import";
+  private static final String NEW_STAGED_BOOKS = """
+      SELECT DISTINCT ON (fold_search_text(s.title), fold_search_text(s.author)) s.title, s.author, s.line FROM books_import s
+      WHERE NOT EXISTS (
+        SELECT 1 FROM books b WHERE fold_search_text(b.title) = fold_search_text(s.title) AND fold_search_text(b.author) = fold_search_text(s.author)
+      )
+      ORDER BY fold_search_text(s.title), fold_search_text(s.author), s.line""";
+  private static final String SKIP_EXISTING_BOOKS = "ON CONFLICT (fold_search_text(title), fold_search_text(author)) DO NOTHING";
+  private static final String INSERT_STAGED_BOOKS = """
+      WITH candidates AS (%1$s),
+      numbered AS (SELECT title, author, row_number() OVER (ORDER BY line) - 1 AS n FROM candidates),
+      blocks AS (
+        SELECT lo, row_number() OVER (ORDER BY lo) - 1 AS b FROM (
+          SELECT nextval('books_seq') AS lo FROM generate_series(1, (SELECT (count(*) + %2$d - 1) / %2$d FROM numbered))
+        ) reserved
+      )
+      INSERT INTO books (id, title, author)
+      SELECT blocks.lo + numbered.n %% %2$d, numbered.title, numbered.author
+      FROM numbered JOIN blocks ON blocks.b = numbered.n / %2$d
+      %3$s""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Imports books from the given input.
+   *
+   * @param input  the input containing one book per line, encoded in UTF-8
+   * @param format the format of the input
+   * @param merge  whether books already in the catalog are skipped instead of inserted again
+   * @return the number of imported, skipped and rejected books
+   * @throws org.springframework.dao.DuplicateKeyException if a book is already in the catalog and the import is not merged
+   */
+  @Transactional
+  public BookImportResultDto importBooks(InputStream input, BulkFormat format, boolean merge) {
+    log.info("Importing books from {}{}", format, merge ? " merging into existing books" : "");
+
+    Rejects rejects = new Rejects();
+    BookImportParser parser = new BookImportParser(format, objectMapper);
+    jdbcTemplate.execute(CREATE_STAGING_TABLE);
+
+    Long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+        copy(connection.unwrap(PGConnection.class).getCopyAPI(), input, parser, rejects));
+    long imported = merge
+        ? jdbcTemplate.update(INSERT_STAGED_BOOKS.formatted(NEW_STAGED_BOOKS, ID_BLOCK_SIZE, SKIP_EXISTING_BOOKS))
+        : jdbcTemplate.update(INSERT_STAGED_BOOKS.formatted(ALL_STAGED_BOOKS, ID_BLOCK_SIZE, ""));
+    long skipped = staged - imported;
+
+    log.info("Imported {} books, skipped {} existing books, rejected {} lines", imported, skipped, rejects.count);
+    return BookImportResultDto.builder()
+        .imported(imported)
+        .skipped(skipped)
+        .rejected(rejects.count)
+        .rejects(rejects.reported)
+        .build();
+  }
+
+  private static long copy(CopyManager copyManager, InputStream input, BookImportParser parser, Rejects rejects) throws SQLException {
+    CopyIn copyIn = copyManager.copyIn(COPY_INTO_STAGING_TABLE);
+    try (BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8), BookImportParser.MAX_LINE_LENGTH)) {
+      StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + 4 * BookImportParser.MAX_LENGTH + 32);
+      long lineNumber = 0;
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank() || lineNumber == 1 && parser.isHeader(line)) {
+          continue;
+        }
+
+        try {
+          BookDto bookDto = parser.parse(line);
+          chunk.append(lineNumber).append(',');
+          appendCsvField(chunk, bookDto.title()).append(',');
+          appendCsvField(chunk, bookDto.author()).append('\n');
+        } catch (IllegalArgumentException e) {
+          rejects.add(lineNumber, e.getMessage());
+        }
+
+        if (chunk.length() >= COPY_CHUNK_SIZE) {
+          writeChunk(copyIn, chunk);
+        }
+        if (lineNumber % PROGRESS_INTERVAL == 0) {
+          log.info("Import progress: read {} lines, rejected {}", lineNumber, rejects.count);
+        }
+      }
+      writeChunk(copyIn, chunk);
+      return copyIn.endCopy();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read imported books", e);
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  private static StringBuilder appendCsvField(StringBuilder chunk, String value) {
+    return chunk.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+
+  private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+    copyIn.writeToCopy(bytes, 0, bytes.length);
+    chunk.setLength(0);
+  }
+
+  /**
+   * Counts rejected lines and keeps the first ones for the report.
+   */
+  private static final class Rejects {
+
+    private final List<BookImportRejectDto> reported = new ArrayList<>();
+    private long count;
+
+    void add(long line, String reason) {
+      count++;
+      if (reported.size() < MAX_REPORTED_REJECTS) {
+        reported.add(BookImportRejectDto.builder().line(line).reason(reason).build());
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package de.cimtag.rateyourbooks.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines of text like {@link java.io.BufferedReader#readLine()}, but never holds more than a maximum number of characters of a line.
+ * <p>
+ * A line longer than the maximum is returned cut to the maximum plus one character, the rest of it is skipped, so callers recognize it by its length.
+ * Memory therefore stays bounded even for input without any line terminator. Lines are terminated by {@code \n}, {@code \r} or {@code \r\n}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class BoundedLineReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final int maxLineLength;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder line;
+  private int position;
+  private int limit;
+  private boolean skipLineFeed;
+
+  /**
+   * Constructs a new BoundedLineReader.
+   *
+   * @param reader        the reader to read the lines from
+   * @param maxLineLength the maximum number of characters of a line kept
+   */
+  BoundedLineReader(Reader reader, int maxLineLength) {
+    this.reader = reader;
+    this.maxLineLength = maxLineLength;
+    this.line = new StringBuilder(maxLineLength + 1);
+  }
+
+  /**
+   * Reads the next line.
+   *
+   * @return the line without its terminator, cut to {@code maxLineLength + 1} characters if it is longer, or {@code null} at the end of the input
+   * @throws IOException if the input cannot be read
+   */
+  String readLine() throws IOException {
+    line.setLength(0);
+    boolean read = false;
+
+    while (true) {
+      if (position == limit) {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count < 0) {
+          return read ? line.toString() : null;
+        }
+        position = 0;
+        limit = count;
+        continue;
+      }
+
+      char c = buffer[position++];
+      if (skipLineFeed) {
+        skipLineFeed = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == '\n' || c == '\r') {
+        skipLineFeed = c == '\r';
+        return line.toString();
+      }
+
+      read = true;
+      if (line.length() <= maxLineLength) {
+        line.append(c);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,71 @@
+package de.cimtag.rateyourbooks.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import de.cimtag.rateyourbooks.config.LoggingProperties;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the writing of log events off the request threads.
+ * <p>
+ * The console and file appenders set up by Spring Boot are wrapped into Logback {@link AsyncAppender}s, which hand the events to a background thread via
+ * a bounded ring buffer. Buffer size, discarding and blocking behaviour are configured with the {@code rateyourbooks.logging.async.*} properties, so the
+ * regular {@code logging.*} properties keep working unchanged.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@ConditionalOnProperty(prefix = "rateyourbooks.logging.async", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncLogAppenders {
+
+  private static final String ASYNC_PREFIX = "ASYNC_";
+
+  private final LoggingProperties loggingProperties;
+
+  /**
+   * Wraps every synchronous appender of the root logger into an asynchronous one.
+   */
+  @PostConstruct
+  public void wrapAppenders() {
+    if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext)) {
+      log.warn("Logging is not backed by Logback, log events are written synchronously");
+      return;
+    }
+
+    Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+    List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+    rootLogger.iteratorForAppenders().forEachRemaining(appenders::add);
+
+    for (Appender<ILoggingEvent> appender : appenders) {
+      if (appender instanceof AsyncAppender || appender.getName().startsWith(ASYNC_PREFIX)) {
+        continue;
+      }
+
+      AsyncAppender asyncAppender = new AsyncAppender();
+      asyncAppender.setContext(loggerContext);
+      asyncAppender.setName(ASYNC_PREFIX + appender.getName());
+      asyncAppender.setQueueSize(loggingProperties.async().queueSize());
+      asyncAppender.setDiscardingThreshold(loggingProperties.async().discardingThreshold());
+      asyncAppender.setNeverBlock(loggingProperties.async().neverBlock());
+      asyncAppender.addAppender(appender);
+      asyncAppender.start();
+
+      rootLogger.addAppender(asyncAppender);
+      rootLogger.detachAppender(appender);
+    }
+    log.info("Writing log events asynchronously with a queue size of {}", loggingProperties.async().queueSize());
+  }
+}
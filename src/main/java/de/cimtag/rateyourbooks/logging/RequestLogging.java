@@ -0,0 +1,62 @@
+package de.cimtag.rateyourbooks.logging;
+
+import de.cimtag.rateyourbooks.config.LoggingProperties;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps request and result logging cheap on hot endpoints.
+ * <p>
+ * Requests are logged only for a configurable fraction of calls per endpoint, and payloads are shortened before they are written: lists of books are
+ * logged as their size and the first IDs, other payloads are cut off after a maximum length.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLogging {
+
+  private final LoggingProperties loggingProperties;
+
+  /**
+   * Decides whether the current call of the given endpoint is logged.
+   *
+   * @param endpoint the name of the endpoint, i.e. the controller method name
+   * @return {@code true} if the call is part of the sample and should be logged
+   */
+  public boolean isSampled(String endpoint) {
+    double sampleRate = loggingProperties.sampleRates().getOrDefault(endpoint, loggingProperties.defaultSampleRate());
+    return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  /**
+   * Summarizes a list of books by its size and the IDs of the first books.
+   *
+   * @param books the books to summarize
+   * @return a summary like {@code 3 books [1, 2, 3]}
+   */
+  public String summarize(Collection<BookDto> books) {
+    String ids = books.stream()
+        .limit(loggingProperties.maxLoggedIds())
+        .map(book -> String.valueOf(book.id()))
+        .collect(Collectors.joining(", ", "[", books.size() > loggingProperties.maxLoggedIds() ? ", ...]" : "]"));
+    return books.size() + " books " + ids;
+  }
+
+  /**
+   * Shortens the string representation of a payload to the configured maximum length.
+   *
+   * @param payload the payload to log
+   * @return the string representation of the payload, cut off after the maximum length
+   */
+  public String abbreviate(Object payload) {
+    String value = String.valueOf(payload);
+    int maxLength = loggingProperties.maxPayloadLength();
+    return value.length() <= maxLength ? value : value.substring(0, maxLength) + "... (" + value.length() + " chars)";
+  }
+}
@@ -5,17 +5,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
 /**
  * Entity class representing a book.
  * <p>
- * This class is mapped to the "books" table in the database and includes fields for the book's ID, title, and author.
+ * This class is mapped to the "books" table in the database and includes fields for the book's ID, title, and author. The version is
+ * incremented by Hibernate on every update and guards against lost updates, the last modification timestamp is maintained alongside.
  * </p>
  *
  * @author Niklas Witzel
@@ -30,12 +35,19 @@ import lombok.Setter;
 public class Book {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+  @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
   private Long id;
 
   private String title;
   private String author;
 
+  @Version
+  private Long version;
+
+  @UpdateTimestamp
+  private Instant lastModified;
+
   /**
    * Converts this {@link Book} entity to a {@link BookDto}.
    *
@@ -46,6 +58,8 @@ public class Book {
         .id(id)
         .title(title)
         .author(author)
+        .version(version)
+        .lastModified(lastModified)
         .build();
   }
 }
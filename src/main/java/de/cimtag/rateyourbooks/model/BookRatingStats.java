@@ -0,0 +1,35 @@
+package de.cimtag.rateyourbooks.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity class representing the aggregated ratings of a book.
+ * <p>
+ * This class is mapped to the "book_rating_stats" table in the database and holds the number of ratings and the sum of their scores. Single ratings are
+ * not stored.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Entity
+@Table(name = "book_rating_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookRatingStats {
+
+  @Id
+  private Long bookId;
+
+  private long ratingCount;
+  private long ratingSum;
+}
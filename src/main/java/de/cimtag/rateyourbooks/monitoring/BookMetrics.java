@@ -0,0 +1,46 @@
+package de.cimtag.rateyourbooks.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Application-specific metrics of the book endpoints.
+ * <p>
+ * Latencies of the endpoints, the repository methods and the connection pool are recorded by Spring Boot's built-in instrumentation
+ * ({@code http.server.requests}, {@code spring.data.repository.invocations} and {@code hikaricp.connections.*}). This class adds the distribution of
+ * result sizes of the list endpoints, which tells whether slow requests are caused by large results.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+public class BookMetrics {
+
+  private final MeterRegistry meterRegistry;
+  private final Map<String, DistributionSummary> resultSizes = new ConcurrentHashMap<>();
+
+  /**
+   * Records the number of books returned by a list endpoint.
+   *
+   * @param query the kind of query answered, e.g. {@code author} or {@code all}
+   * @param size  the number of books returned
+   */
+  public void recordResultSize(String query, int size) {
+    resultSizes.computeIfAbsent(query, this::createResultSizeSummary).record(size);
+  }
+
+  private DistributionSummary createResultSizeSummary(String query) {
+    return DistributionSummary.builder("books.results")
+        .description("Number of books returned by the list endpoints")
+        .baseUnit("books")
+        .tag("query", query)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
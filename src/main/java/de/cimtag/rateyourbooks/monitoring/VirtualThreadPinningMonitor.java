@@ -0,0 +1,89 @@
+package de.cimtag.rateyourbooks.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects virtual threads that are pinned to their carrier thread.
+ * <p>
+ * A pinned virtual thread blocks its carrier, e.g. while waiting inside a {@code synchronized} block, which silently shrinks the carrier pool. This monitor
+ * listens to the {@code jdk.VirtualThreadPinned} JFR event in-process, logs the top frames of every pinning longer than the configured threshold and counts
+ * them in the {@code jvm.threads.virtual.pinned} metric.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 8;
+
+  private final Duration threshold;
+  private final Counter pinnedCounter;
+  private RecordingStream recordingStream;
+
+  /**
+   * Constructs a new VirtualThreadPinningMonitor.
+   *
+   * @param threshold     the minimum duration of a pinning to be reported
+   * @param meterRegistry the registry to publish the pinning counter to
+   */
+  public VirtualThreadPinningMonitor(@Value("${rateyourbooks.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+      MeterRegistry meterRegistry) {
+    this.threshold = threshold;
+    this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+        .description("Number of virtual threads pinned to their carrier thread for longer than " + threshold)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts listening to pinning events.
+   */
+  @PostConstruct
+  public void start() {
+    log.info("Monitoring virtual threads pinned for longer than {}", threshold);
+
+    recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    recordingStream.startAsync();
+  }
+
+  /**
+   * Stops listening to pinning events.
+   */
+  @PreDestroy
+  public void stop() {
+    if (recordingStream != null) {
+      recordingStream.close();
+    }
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinnedCounter.increment();
+
+    String frames = event.getStackTrace() == null ? "<no stack trace>" : event.getStackTrace().getFrames().stream()
+        .limit(LOGGED_FRAMES)
+        .map(VirtualThreadPinningMonitor::formatFrame)
+        .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+    log.warn("Virtual thread pinned to its carrier thread for {} ms:{}", event.getDuration().toMillis(), frames);
+  }
+
+  private static String formatFrame(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+  }
+}
@@ -0,0 +1,184 @@
+package de.cimtag.rateyourbooks.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import de.cimtag.rateyourbooks.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Receives the change notifications sent by the {@link BookChangeNotifier} of other instances of the application.
+ * <p>
+ * The listener holds a dedicated connection outside the connection pool, as {@code LISTEN} is bound to a session. Received notifications are republished as
+ * remote {@link BooksChangedEvent}s and {@link BooksImportedEvent}s, so the caches, the search index and the ratings of this instance update the same way
+ * as for local changes. Notifications sent while the connection was lost are gone, so after reconnecting a remote {@link BooksImportedEvent} makes every
+ * listener resynchronize completely.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@ConditionalOnProperty(prefix = "rateyourbooks.notifications", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BookChangeListener {
+
+  private static final int POLL_TIMEOUT_MILLIS = 500;
+  private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+  private final DataSourceProperties dataSourceProperties;
+  private final BookRepository bookRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectMapper objectMapper;
+  private final String nodeId;
+  private final TransactionTemplate transactionTemplate;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  /**
+   * Constructs a new BookChangeListener.
+   *
+   * @param dataSourceProperties the properties of the primary database
+   * @param bookRepository       the repository to load changed books from
+   * @param eventPublisher       the publisher for the remote events
+   * @param objectMapper         the mapper to decode the notifications with
+   * @param notifier             the notifier of this instance, whose own notifications are ignored
+   * @param transactionManager   the transaction manager to load changed books with
+   */
+  public BookChangeListener(DataSourceProperties dataSourceProperties, BookRepository bookRepository, ApplicationEventPublisher eventPublisher,
+      ObjectMapper objectMapper, BookChangeNotifier notifier, PlatformTransactionManager transactionManager) {
+    this.dataSourceProperties = dataSourceProperties;
+    this.bookRepository = bookRepository;
+    this.eventPublisher = eventPublisher;
+    this.objectMapper = objectMapper;
+    this.nodeId = notifier.getNodeId();
+    // Not read-only, so the books are loaded from the primary even when reads are routed to replicas which may lag behind
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Starts listening to change notifications.
+   */
+  @PostConstruct
+  public void start() {
+    running = true;
+    thread = Thread.ofPlatform().name("book-change-listener").daemon().start(this::listen);
+  }
+
+  /**
+   * Stops listening to change notifications.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        thread.join(POLL_TIMEOUT_MILLIS * 2L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void listen() {
+    Duration reconnectDelay = Duration.ofSeconds(1);
+    boolean reconnect = false;
+
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+          dataSourceProperties.determinePassword())) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + BookChangeNotifier.CHANNEL);
+        }
+        log.info("Listening to book change notifications on channel '{}'", BookChangeNotifier.CHANNEL);
+
+        if (reconnect) {
+          // Changes of other instances may have been missed while disconnected
+          eventPublisher.publishEvent(new BooksImportedEvent(0, true));
+        }
+        reconnect = true;
+        reconnectDelay = Duration.ofSeconds(1);
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              try {
+                handle(notification.getParameter());
+              } catch (RuntimeException e) {
+                log.error("Failed to handle book change notification: {}", notification.getParameter(), e);
+              }
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("Lost connection for book change notifications, reconnecting in {}", reconnectDelay, e);
+        try {
+          Thread.sleep(reconnectDelay);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        reconnectDelay = reconnectDelay.multipliedBy(2).compareTo(MAX_RECONNECT_DELAY) > 0 ? MAX_RECONNECT_DELAY : reconnectDelay.multipliedBy(2);
+      }
+    }
+  }
+
+  /**
+   * Republishes a received notification as remote event, unless it has been sent by this instance.
+   *
+   * @param payload the payload of the notification
+   */
+  void handle(String payload) {
+    BookChangeNotification notification;
+    try {
+      notification = objectMapper.readValue(payload, BookChangeNotification.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Ignoring malformed book change notification: {}", payload);
+      return;
+    }
+    if (nodeId.equals(notification.node())) {
+      return;
+    }
+
+    log.debug("Received book change notification: {}", payload);
+    if (notification.imported()) {
+      eventPublisher.publishEvent(new BooksImportedEvent(0, true));
+      return;
+    }
+
+    List<BookDto> savedBooks = notification.savedIds().isEmpty() ? List.of()
+        : transactionTemplate.execute(status -> bookRepository.findAllDtosByIdIn(notification.savedIds()));
+    Set<Long> foundIds = savedBooks.stream().map(BookDto::id).collect(Collectors.toSet());
+    // Books deleted again since the notification has been sent are treated as deleted
+    List<Long> deletedIds = Stream.concat(notification.deletedIds().stream(), notification.savedIds().stream().filter(id -> !foundIds.contains(id)))
+        .toList();
+
+    eventPublisher.publishEvent(BooksChangedEvent.remote(savedBooks, deletedIds));
+  }
+}
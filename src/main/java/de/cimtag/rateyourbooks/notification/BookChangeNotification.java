@@ -0,0 +1,24 @@
+package de.cimtag.rateyourbooks.notification;
+
+import java.util.List;
+
+/**
+ * Payload of a change notification sent to the other instances of the application.
+ * <p>
+ * Only IDs are sent, as a PostgreSQL notification payload is limited to 8000 bytes. Receivers load the current state of saved books themselves.
+ * </p>
+ *
+ * @param node       the ID of the sending instance, so it can ignore its own notifications
+ * @param savedIds   the IDs of the created or updated books
+ * @param deletedIds the IDs of the deleted books
+ * @param imported   whether books have been bulk imported, which is not tracked book by book
+ * @author Niklas Witzel
+ */
+public record BookChangeNotification(
+    String node,
+    List<Long> savedIds,
+    List<Long> deletedIds,
+    boolean imported
+) {
+
+}
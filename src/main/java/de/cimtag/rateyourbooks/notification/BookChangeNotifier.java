@@ -0,0 +1,94 @@
+package de.cimtag.rateyourbooks.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Notifies the other instances of the application about changed books via PostgreSQL's {@code NOTIFY}.
+ * <p>
+ * The notification is sent inside the transaction changing the books, right before it commits. PostgreSQL delivers it only if the transaction commits,
+ * so other instances never hear of changes that have been rolled back, and always find the change when they load the books.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@ConditionalOnProperty(prefix = "rateyourbooks.notifications", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BookChangeNotifier {
+
+  static final String CHANNEL = "book_changes";
+
+  // Keeps every payload well below PostgreSQL's limit of 8000 bytes
+  private static final int MAX_IDS_PER_NOTIFICATION = 400;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The ID of this instance, sent with every notification.
+   */
+  @Getter
+  private final String nodeId = UUID.randomUUID().toString();
+
+  /**
+   * Sends the IDs of the books changed by this instance.
+   *
+   * @param event the event describing the changed books
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onBooksChanged(BooksChangedEvent event) {
+    if (event.remote()) {
+      return;
+    }
+
+    List<Long> savedIds = event.savedBooks().stream().map(BookDto::id).toList();
+    for (int from = 0; from < savedIds.size(); from += MAX_IDS_PER_NOTIFICATION) {
+      notify(new BookChangeNotification(nodeId, savedIds.subList(from, Math.min(from + MAX_IDS_PER_NOTIFICATION, savedIds.size())), List.of(), false));
+    }
+    List<Long> deletedIds = event.deletedIds();
+    for (int from = 0; from < deletedIds.size(); from += MAX_IDS_PER_NOTIFICATION) {
+      notify(new BookChangeNotification(nodeId, List.of(), deletedIds.subList(from, Math.min(from + MAX_IDS_PER_NOTIFICATION, deletedIds.size())), false));
+    }
+  }
+
+  /**
+   * Sends a notification about books imported by this instance.
+   *
+   * @param event the event describing the import
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onBooksImported(BooksImportedEvent event) {
+    if (!event.remote()) {
+      notify(new BookChangeNotification(nodeId, List.of(), List.of(), true));
+    }
+  }
+
+  private void notify(BookChangeNotification notification) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(notification);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not encode book change notification", e);
+    }
+
+    log.debug("Notifying other instances: {}", payload);
+    jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) resultSet -> {
+    }, CHANNEL, payload);
+  }
+}
@@ -0,0 +1,134 @@
+package de.cimtag.rateyourbooks.rating;
+
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.rating.BookRatings.RatingStats;
+import jakarta.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Leaderboard of the best rated books.
+ * <p>
+ * Books are ordered by their average rating, then by their number of ratings, in an {@link OrderStatisticTreap}, so the top books and the rank of a book
+ * are found in logarithmic time instead of sorting all books per request. The leaderboard is rebuilt from the aggregated ratings loaded from the database
+ * at startup. Books rated since the last query are re-ranked before the next query is answered, which keeps the rating path itself free of locks.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookLeaderboard {
+
+  private static final Comparator<Ranking> BEST_FIRST = Comparator.comparingDouble(Ranking::averageRating).reversed()
+      .thenComparing(Comparator.comparingLong(Ranking::ratingCount).reversed())
+      .thenComparingLong(Ranking::bookId);
+
+  private final BookRatings bookRatings;
+
+  private final OrderStatisticTreap<Ranking> rankings = new OrderStatisticTreap<>(BEST_FIRST);
+  private final Map<Long, Ranking> rankingsByBook = new HashMap<>();
+
+  /**
+   * Rebuilds the leaderboard from the current ratings of all books.
+   */
+  @PostConstruct
+  public synchronized void rebuild() {
+    rankings.clear();
+    rankingsByBook.clear();
+    bookRatings.pollChangedBookIds();
+    bookRatings.forEachStats(this::update);
+    log.info("Built leaderboard of {} rated books", rankings.size());
+  }
+
+  /**
+   * Returns the best rated books.
+   *
+   * @param limit the maximum number of books to return
+   * @return the best rated books, best first
+   */
+  public synchronized List<RankedBook> top(int limit) {
+    applyChangedRatings();
+
+    List<Ranking> topRankings = rankings.first(limit);
+    return IntStream.range(0, topRankings.size())
+        .mapToObj(index -> new RankedBook(index + 1, topRankings.get(index)))
+        .toList();
+  }
+
+  /**
+   * Returns the rank of a book.
+   *
+   * @param bookId the ID of the book
+   * @return the rank of the book, or empty if the book has not been rated yet
+   */
+  public synchronized Optional<RankedBook> rank(Long bookId) {
+    applyChangedRatings();
+
+    Ranking ranking = rankingsByBook.get(bookId);
+    return ranking == null ? Optional.empty() : Optional.of(new RankedBook(rankings.rank(ranking) + 1, ranking));
+  }
+
+  /**
+   * Removes deleted books from the leaderboard.
+   *
+   * @param event the event describing the changed books
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBooksChanged(BooksChangedEvent event) {
+    event.deletedIds().forEach(bookId -> {
+      Ranking ranking = rankingsByBook.remove(bookId);
+      if (ranking != null) {
+        rankings.remove(ranking);
+      }
+    });
+  }
+
+  private void applyChangedRatings() {
+    bookRatings.pollChangedBookIds().forEach(bookId -> update(bookId, bookRatings.stats(bookId)));
+  }
+
+  private void update(Long bookId, RatingStats stats) {
+    Ranking previous = rankingsByBook.remove(bookId);
+    if (previous != null) {
+      rankings.remove(previous);
+    }
+    if (stats.count() == 0) {
+      return;
+    }
+
+    Ranking ranking = new Ranking(bookId, stats.average(), stats.count());
+    rankings.insert(ranking);
+    rankingsByBook.put(bookId, ranking);
+  }
+
+  /**
+   * The position of a book in the leaderboard.
+   *
+   * @param bookId        the ID of the book
+   * @param averageRating the average rating of the book
+   * @param ratingCount   the number of ratings of the book
+   */
+  public record Ranking(long bookId, double averageRating, long ratingCount) {
+
+  }
+
+  /**
+   * A book with its rank.
+   *
+   * @param rank    the 1-based rank of the book
+   * @param ranking the ratings the rank is based on
+   */
+  public record RankedBook(int rank, Ranking ranking) {
+
+  }
+}
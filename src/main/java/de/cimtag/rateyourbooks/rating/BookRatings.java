@@ -0,0 +1,255 @@
+package de.cimtag.rateyourbooks.rating;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.RatingDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.repository.BookRatingStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Aggregates the ratings of books in memory and writes them to the database in periodic batches.
+ * <p>
+ * Every book has a {@link LongAdder} holding the number of its ratings and the sum of their scores packed into a single long, so a rating is recorded
+ * without locks and with little contention, and count and sum are always read consistently. Rated books are marked as unflushed, and the flush adds
+ * the difference to the previously flushed value of only those books to the {@code book_rating_stats} table with one JDBC batch of upserts, so its cost
+ * does not grow with the number of rated books in the catalog. Counts and averages are served from memory, so reading them never runs a
+ * {@code GROUP BY}.
+ * </p>
+ * <p>
+ * The packed representation limits a book to about 858 million ratings. Ratings recorded by other instances become visible after a restart.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookRatings {
+
+  private static final int COUNT_SHIFT = 32;
+  private static final long SUM_MASK = (1L << COUNT_SHIFT) - 1;
+
+  private static final String UPSERT_STATS = "INSERT INTO book_rating_stats (book_id, rating_count, rating_sum) "
+      + "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM books WHERE id = ?) "
+      + "ON CONFLICT (book_id) DO UPDATE SET rating_count = book_rating_stats.rating_count + EXCLUDED.rating_count, "
+      + "rating_sum = book_rating_stats.rating_sum + EXCLUDED.rating_sum";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final BookRatingStatsRepository bookRatingStatsRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  private final Map<Long, RatingCounter> counters = new ConcurrentHashMap<>();
+  private final Set<Long> changedBookIds = ConcurrentHashMap.newKeySet();
+  private final Set<Long> unflushedBookIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Loads the aggregated ratings of all books from the database.
+   */
+  @PostConstruct
+  public synchronized void load() {
+    counters.clear();
+    changedBookIds.clear();
+    unflushedBookIds.clear();
+    bookRatingStatsRepository.findAll().forEach(stats -> {
+      RatingCounter counter = counter(stats.getBookId());
+      long packed = pack(stats.getRatingCount(), stats.getRatingSum());
+      counter.packed.add(packed);
+      counter.flushed = packed;
+    });
+    log.info("Loaded ratings of {} books", counters.size());
+  }
+
+  /**
+   * Records a rating of a book.
+   *
+   * @param bookId the ID of the rated book
+   * @param score  the score of the rating
+   * @throws IllegalArgumentException if the score is out of range
+   */
+  public void rate(Long bookId, int score) {
+    if (score < RatingDto.MIN_SCORE || score > RatingDto.MAX_SCORE) {
+      throw new IllegalArgumentException("Rating score must be between " + RatingDto.MIN_SCORE + " and " + RatingDto.MAX_SCORE + "!");
+    }
+    counter(bookId).packed.add(pack(1, score));
+    // Marked after counting, so the flush or poll removing the mark sees the rating
+    mark(changedBookIds, bookId);
+    mark(unflushedBookIds, bookId);
+  }
+
+  /**
+   * Returns the IDs of the books rated since the previous call and resets them.
+   * <p>
+   * A book rated concurrently with this call is either part of the result with its new rating already counted, or part of the result of the next call.
+   * </p>
+   *
+   * @return the IDs of the books rated since the previous call
+   */
+  public List<Long> pollChangedBookIds() {
+    List<Long> bookIds = new ArrayList<>();
+    for (Long bookId : changedBookIds) {
+      changedBookIds.remove(bookId);
+      bookIds.add(bookId);
+    }
+    return bookIds;
+  }
+
+  /**
+   * Passes the current ratings of every rated book to the given consumer.
+   *
+   * @param consumer the consumer of the book IDs and their ratings
+   */
+  public void forEachStats(BiConsumer<Long, RatingStats> consumer) {
+    counters.forEach((bookId, counter) -> consumer.accept(bookId, unpack(counter.packed.sum())));
+  }
+
+  /**
+   * Returns the current ratings of a book, including ratings not flushed yet.
+   *
+   * @param bookId the ID of the book
+   * @return the ratings of the book
+   */
+  public RatingStats stats(Long bookId) {
+    RatingCounter counter = counters.get(bookId);
+    return counter == null ? RatingStats.NONE : unpack(counter.packed.sum());
+  }
+
+  /**
+   * Returns the given book with its current rating count and average.
+   *
+   * @param bookDto the book without ratings
+   * @return the book with ratings
+   */
+  public BookDto withRatings(BookDto bookDto) {
+    RatingStats stats = stats(bookDto.id());
+    return bookDto.toBuilder()
+        .ratingCount(stats.count())
+        .averageRating(stats.average())
+        .build();
+  }
+
+  /**
+   * Returns the given books with their current rating counts and averages.
+   *
+   * @param bookDtos the books without ratings
+   * @return the books with ratings, in the same order
+   */
+  public List<BookDto> withRatings(List<BookDto> bookDtos) {
+    return bookDtos.stream().map(this::withRatings).toList();
+  }
+
+  /**
+   * Writes the ratings recorded since the last flush to the database in one batch.
+   */
+  @Scheduled(fixedDelayString = "${rateyourbooks.ratings.flush-interval:PT1S}")
+  public synchronized void flush() {
+    List<Long> bookIds = new ArrayList<>();
+    List<Object[]> batch = new ArrayList<>();
+    List<Runnable> commits = new ArrayList<>();
+    for (Long bookId : unflushedBookIds) {
+      // Removed before the counter is read, so a rating recorded meanwhile marks the book again for the next flush
+      unflushedBookIds.remove(bookId);
+      RatingCounter counter = counters.get(bookId);
+      if (counter == null) {
+        continue;
+      }
+      long packed = counter.packed.sum();
+      long delta = packed - counter.flushed;
+      if (delta != 0) {
+        bookIds.add(bookId);
+        batch.add(new Object[]{bookId, delta >>> COUNT_SHIFT, delta & SUM_MASK, bookId});
+        commits.add(() -> counter.flushed = packed);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    // One transaction, so a failed batch is retried completely by the next flush instead of counting a part twice
+    try {
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_STATS, batch));
+    } catch (RuntimeException e) {
+      unflushedBookIds.addAll(bookIds);
+      throw e;
+    }
+    commits.forEach(Runnable::run);
+    log.debug("Flushed ratings of {} books", batch.size());
+  }
+
+  /**
+   * Flushes the pending ratings before the application shuts down.
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  /**
+   * Drops the ratings of deleted books. Their rows are removed from the database by the foreign key.
+   *
+   * @param event the event describing the changed books
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksChanged(BooksChangedEvent event) {
+    event.deletedIds().forEach(counters::remove);
+  }
+
+  private static void mark(Set<Long> bookIds, Long bookId) {
+    // Checked first, as adding an already contained ID would still lock the set's bin on every rating of a popular book
+    if (!bookIds.contains(bookId)) {
+      bookIds.add(bookId);
+    }
+  }
+
+  private RatingCounter counter(Long bookId) {
+    return counters.computeIfAbsent(bookId, id -> new RatingCounter());
+  }
+
+  private static long pack(long count, long sum) {
+    return (count << COUNT_SHIFT) + sum;
+  }
+
+  private static RatingStats unpack(long packed) {
+    return new RatingStats(packed >>> COUNT_SHIFT, packed & SUM_MASK);
+  }
+
+  /**
+   * The ratings of a book.
+   *
+   * @param count the number of ratings
+   * @param sum   the sum of the scores of all ratings
+   */
+  public record RatingStats(long count, long sum) {
+
+    static final RatingStats NONE = new RatingStats(0, 0);
+
+    /**
+     * Returns the average score.
+     *
+     * @return the average score, or {@code null} if the book has not been rated yet
+     */
+    public Double average() {
+      return count == 0 ? null : (double) sum / count;
+    }
+  }
+
+  private static final class RatingCounter {
+
+    private final LongAdder packed = new LongAdder();
+    private long flushed;
+  }
+}
@@ -0,0 +1,195 @@
+package de.cimtag.rateyourbooks.rating;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted collection of distinct keys that also answers positional queries.
+ * <p>
+ * The keys are held in a treap, a binary search tree balanced by random node priorities, in which every node knows the size of its subtree. Inserting,
+ * removing and ranking a key take expected logarithmic time, the first {@code n} keys are returned in logarithmic time plus {@code n}. The class is not
+ * thread-safe.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @author Niklas Witzel
+ */
+public final class OrderStatisticTreap<K> {
+
+  private final Comparator<? super K> comparator;
+  private final SplittableRandom random = new SplittableRandom();
+  private Node<K> root;
+
+  /**
+   * Constructs an empty treap.
+   *
+   * @param comparator the order of the keys
+   */
+  public OrderStatisticTreap(Comparator<? super K> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Inserts a key that is not contained yet.
+   *
+   * @param key the key to insert
+   */
+  public void insert(K key) {
+    Split<K> split = split(root, key);
+    root = merge(merge(split.lower(), new Node<>(key, random.nextInt())), split.upper());
+  }
+
+  /**
+   * Removes a key if it is contained.
+   *
+   * @param key the key to remove
+   */
+  public void remove(K key) {
+    root = remove(root, key);
+  }
+
+  /**
+   * Returns the number of keys ordered before the given key.
+   *
+   * @param key the key to rank
+   * @return the 0-based position of the key, or -1 if the key is not contained
+   */
+  public int rank(K key) {
+    int rank = 0;
+    Node<K> node = root;
+    while (node != null) {
+      int comparison = comparator.compare(key, node.key);
+      if (comparison < 0) {
+        node = node.left;
+      } else if (comparison > 0) {
+        rank += size(node.left) + 1;
+        node = node.right;
+      } else {
+        return rank + size(node.left);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the first keys in order.
+   *
+   * @param n the maximum number of keys to return
+   * @return the first {@code n} keys, fewer if the treap is smaller
+   */
+  public List<K> first(int n) {
+    List<K> keys = new ArrayList<>(Math.max(0, Math.min(n, size())));
+    Deque<Node<K>> path = new ArrayDeque<>();
+    Node<K> node = root;
+    while (keys.size() < n && (node != null || !path.isEmpty())) {
+      while (node != null) {
+        path.push(node);
+        node = node.left;
+      }
+      node = path.pop();
+      keys.add(node.key);
+      node = node.right;
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the number of keys.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return size(root);
+  }
+
+  /**
+   * Removes all keys.
+   */
+  public void clear() {
+    root = null;
+  }
+
+  private Node<K> remove(Node<K> node, K key) {
+    if (node == null) {
+      return null;
+    }
+
+    int comparison = comparator.compare(key, node.key);
+    if (comparison < 0) {
+      node.left = remove(node.left, key);
+    } else if (comparison > 0) {
+      node.right = remove(node.right, key);
+    } else {
+      return merge(node.left, node.right);
+    }
+    return node.update();
+  }
+
+  /**
+   * Splits a subtree into the keys ordered before the given key and the remaining keys.
+   */
+  private Split<K> split(Node<K> node, K key) {
+    if (node == null) {
+      return new Split<>(null, null);
+    }
+
+    if (comparator.compare(node.key, key) < 0) {
+      Split<K> split = split(node.right, key);
+      node.right = split.lower();
+      return new Split<>(node.update(), split.upper());
+    }
+    Split<K> split = split(node.left, key);
+    node.left = split.upper();
+    return new Split<>(split.lower(), node.update());
+  }
+
+  /**
+   * Merges two subtrees, all keys of the first one being ordered before all keys of the second one.
+   */
+  private Node<K> merge(Node<K> lower, Node<K> upper) {
+    if (lower == null) {
+      return upper;
+    }
+    if (upper == null) {
+      return lower;
+    }
+
+    if (lower.priority > upper.priority) {
+      lower.right = merge(lower.right, upper);
+      return lower.update();
+    }
+    upper.left = merge(lower, upper.left);
+    return upper.update();
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private record Split<K>(Node<K> lower, Node<K> upper) {
+
+  }
+
+  private static final class Node<K> {
+
+    private final K key;
+    private final int priority;
+    private Node<K> left;
+    private Node<K> right;
+    private int size = 1;
+
+    private Node(K key, int priority) {
+      this.key = key;
+      this.priority = priority;
+    }
+
+    private Node<K> update() {
+      size = size(left) + size(right) + 1;
+      return this;
+    }
+  }
+}
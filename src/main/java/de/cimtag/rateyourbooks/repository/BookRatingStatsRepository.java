@@ -0,0 +1,15 @@
+package de.cimtag.rateyourbooks.repository;
+
+import de.cimtag.rateyourbooks.model.BookRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing the aggregated ratings of books.
+ *
+ * @author Niklas Witzel
+ */
+@Repository
+public interface BookRatingStatsRepository extends JpaRepository<BookRatingStats, Long> {
+
+}
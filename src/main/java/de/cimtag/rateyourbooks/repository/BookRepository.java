@@ -1,21 +1,53 @@
 package de.cimtag.rateyourbooks.repository;
 
+import de.cimtag.rateyourbooks.dto.BookDto;
 import de.cimtag.rateyourbooks.model.Book;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.repository.ListCrudRepository;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository interface for accessing book data.
  * <p>
- * This interface extends ListCrudRepository to provide CRUD operations on Book entities.
+ * This interface extends JpaRepository to provide CRUD operations on Book entities. Read queries project straight into {@link BookDto}s with a
+ * constructor expression or are marked read-only, so no entity snapshots are kept and nothing has to be checked for changes on flush. The lookups
+ * called outside of a service transaction run in read-only transactions of their own.
  * </p>
  *
  * @author Niklas Witzel
  */
 @Repository
-public interface BookRepository extends ListCrudRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long> {
+
+  /**
+   * Number of rows the JDBC driver fetches per round trip when streaming books.
+   */
+  String STREAM_FETCH_SIZE = "500";
+
+  /**
+   * Select clause projecting a book into a {@link BookDto}.
+   */
+  String SELECT_BOOK_DTO = "select new de.cimtag.rateyourbooks.dto.BookDto(b.id, b.title, b.author, b.version, b.lastModified) from Book b";
+
+  /**
+   * Finds a book by its ID.
+   *
+   * @param id the ID of the book
+   * @return an Optional containing the found book, or empty if no book is found
+   */
+  @Query(SELECT_BOOK_DTO + " where b.id = :id")
+  @Transactional(readOnly = true)
+  Optional<BookDto> findDtoById(Long id);
 
   /**
    * Finds a book by its title.
@@ -23,7 +55,9 @@ public interface BookRepository extends ListCrudRepository<Book, Long> {
    * @param title the title of the book
    * @return an Optional containing the found book, or empty if no book is found
    */
-  Optional<Book> findByTitle(String title);
+  @Query(SELECT_BOOK_DTO + " where b.title = :title")
+  @Transactional(readOnly = true)
+  Optional<BookDto> findDtoByTitle(String title);
 
   /**
    * Finds a book by its title and author.
@@ -32,7 +66,9 @@ public interface BookRepository extends ListCrudRepository<Book, Long> {
    * @param author the author of the book
    * @return an Optional containing the found book, or empty if no book is found
    */
-  Optional<Book> findByTitleAndAuthor(String title, String author);
+  @Query(SELECT_BOOK_DTO + " where b.title = :title and b.author = :author")
+  @Transactional(readOnly = true)
+  Optional<BookDto> findDtoByTitleAndAuthor(String title, String author);
 
   /**
    * Finds all books by a specific author.
@@ -40,5 +76,151 @@ public interface BookRepository extends ListCrudRepository<Book, Long> {
    * @param author the author of the books
    * @return a list of books by the specified author
    */
-  List<Book> findAllByAuthor(String author);
+  @Query(SELECT_BOOK_DTO + " where b.author = :author")
+  @Transactional(readOnly = true)
+  List<BookDto> findAllDtosByAuthor(String author);
+
+  /**
+   * Finds all books.
+   *
+   * @return a list of all books
+   */
+  @Query(SELECT_BOOK_DTO)
+  List<BookDto> findAllDtos();
+
+  /**
+   * Finds the books with the given IDs.
+   *
+   * @param ids the IDs of the books
+   * @return the existing books with the given IDs, in no particular order
+   */
+  @Query(SELECT_BOOK_DTO + " where b.id in :ids")
+  List<BookDto> findAllDtosByIdIn(Collection<Long> ids);
+
+  /**
+   * Finds books whose title starts with the given prefix, ignoring case and umlaut spelling.
+   * <p>
+   * The query is served by the {@code idx_books_title_folded} index. The books are loaded read-only. LIKE wildcards in the prefix have to be escaped by the caller.
+   * </p>
+   *
+   * @param prefix the escaped prefix of the title
+   * @param limit  the maximum number of books to return
+   * @return a list of matching books ordered by title
+   */
+  @Query(value = "SELECT * FROM books WHERE fold_search_text(title) LIKE fold_search_text(:prefix) || '%' ORDER BY fold_search_text(title), id LIMIT :limit",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  List<Book> findAllByTitlePrefix(String prefix, int limit);
+
+  /**
+   * Finds books whose title contains the given fragment, ignoring case and umlaut spelling.
+   * <p>
+   * The query is served by the {@code idx_books_title_folded_trgm} trigram index. The books are loaded read-only. LIKE wildcards in the fragment have to be escaped by the caller.
+   * </p>
+   *
+   * @param fragment the escaped fragment of the title
+   * @param limit    the maximum number of books to return
+   * @return a list of matching books ordered by title
+   */
+  @Query(value = "SELECT * FROM books WHERE fold_search_text(title) LIKE '%' || fold_search_text(:fragment) || '%' ORDER BY fold_search_text(title), id LIMIT :limit",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  List<Book> findAllByTitleFragment(String fragment, int limit);
+
+  /**
+   * Finds books whose author starts with the given prefix, ignoring case and umlaut spelling.
+   * <p>
+   * The query is served by the {@code idx_books_author_folded} index. The books are loaded read-only. LIKE wildcards in the prefix have to be escaped by the caller.
+   * </p>
+   *
+   * @param prefix the escaped prefix of the author
+   * @param limit  the maximum number of books to return
+   * @return a list of matching books ordered by author
+   */
+  @Query(value = "SELECT * FROM books WHERE fold_search_text(author) LIKE fold_search_text(:prefix) || '%' ORDER BY fold_search_text(author), id LIMIT :limit",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  List<Book> findAllByAuthorPrefix(String prefix, int limit);
+
+  /**
+   * Finds books whose author contains the given fragment, ignoring case and umlaut spelling.
+   * <p>
+   * The query is served by the {@code idx_books_author_folded_trgm} trigram index. The books are loaded read-only. LIKE wildcards in the fragment have to be escaped by the caller.
+   * </p>
+   *
+   * @param fragment the escaped fragment of the author
+   * @param limit    the maximum number of books to return
+   * @return a list of matching books ordered by author
+   */
+  @Query(value = "SELECT * FROM books WHERE fold_search_text(author) LIKE '%' || fold_search_text(:fragment) || '%' ORDER BY fold_search_text(author), id LIMIT :limit",
+      nativeQuery = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  List<Book> findAllByAuthorFragment(String fragment, int limit);
+
+  /**
+   * Finds the books following the given ID in ascending ID order (keyset pagination).
+   *
+   * @param id    the ID after which the page starts (exclusive)
+   * @param limit the maximum number of books to return
+   * @return a list of at most {@code limit} books with an ID greater than the given one
+   */
+  @Query(SELECT_BOOK_DTO + " where b.id > :id order by b.id")
+  List<BookDto> findDtosByIdGreaterThan(Long id, Limit limit);
+
+  /**
+   * Streams all books in ascending ID order.
+   * <p>
+   * The books are read from a database cursor with a bounded fetch size and are projected directly into {@link BookDto}s, so no entities pile up in the
+   * persistence context. The stream must be consumed within a transaction and closed afterwards.
+   * </p>
+   *
+   * @return a stream of all books
+   */
+  @Query(SELECT_BOOK_DTO + " order by b.id")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  Stream<BookDto> streamAll();
+
+  /**
+   * Applies a partial update to a book in a single {@code UPDATE} statement.
+   * <p>
+   * {@code null} values keep the current title or author. The version is incremented and the last modification timestamp is set in the same statement, so
+   * the book does not have to be read before it is updated. The statement bypasses the persistence context, so pending changes are flushed before and
+   * the persistence context is cleared afterwards; no stale instance of the book stays managed. Must be called within a read-write transaction.
+   * </p>
+   *
+   * @param id              the ID of the book to update
+   * @param title           the new title, or {@code null} to keep the current one
+   * @param author          the new author, or {@code null} to keep the current one
+   * @param expectedVersion the version the book must have, or {@code null} to update regardless of the version
+   * @return the number of updated books, 0 if no book with the given ID and version exists
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "UPDATE books SET title = COALESCE(CAST(:title AS VARCHAR), title), author = COALESCE(CAST(:author AS VARCHAR), author), "
+      + "version = version + 1, last_modified = now() "
+      + "WHERE id = :id AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = CAST(:expectedVersion AS BIGINT))",
+      nativeQuery = true)
+  int patchById(Long id, String title, String author, Long expectedVersion);
+
+  /**
+   * Deletes a book with a single {@code DELETE} statement, without loading it first. Must be called within a read-write transaction.
+   *
+   * @param id the ID of the book to delete
+   * @return the number of deleted books, 0 if no book with the given ID exists
+   */
+  @Modifying
+  @Query("delete from Book b where b.id = :id")
+  int removeById(Long id);
+
+  /**
+   * Deletes several books with a single {@code DELETE ... RETURNING} statement, without loading them first. Must be called within a read-write transaction.
+   * <p>
+   * Spring Data runs modifying queries only for their row count, so this is mapped as a read query and does not touch the persistence context. The caller
+   * has to flush pending changes before and clear the persistence context afterwards, so no deleted book stays managed.
+   * </p>
+   *
+   * @param ids the IDs of the books to delete
+   * @return the IDs of the deleted books
+   */
+  @Query(value = "DELETE FROM books WHERE id IN (:ids) RETURNING id", nativeQuery = true)
+  List<Long> removeAllByIdIn(Collection<Long> ids);
 }
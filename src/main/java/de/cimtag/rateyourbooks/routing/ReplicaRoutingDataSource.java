@@ -0,0 +1,308 @@
+package de.cimtag.rateyourbooks.routing;
+
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Routes read-only transactions to healthy read replicas and everything else to the primary.
+ * <p>
+ * Connections are handed out by key: read-only transactions are spread round-robin over the replicas that passed their last health check, writes,
+ * read-write transactions and work outside of transactions use the primary. For the routing to see the read-only flag, this data source has to be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the connection on the first statement.
+ * </p>
+ * <p>
+ * Replicas lag behind the primary. To let clients read their own writes, a request changing books gets the {@value #LAST_WRITE_COOKIE} cookie with the
+ * time of the change, and the reads of requests carrying it stay on the primary for the read-your-writes window. The window is scoped to the writing
+ * client, so other clients keep reading from the replicas, and it holds whichever instance serves the next request, as long as the clocks of the
+ * instances roughly agree. Changes made outside of requests, e.g. by scheduled tasks, do not redirect any reads. A replica that cannot be reached or lags more than the configured maximum receives no reads until a later health check
+ * succeeds; without healthy replicas all reads go to the primary.
+ * </p>
+ * <p>
+ * The lag is measured against the current WAL position of the primary: a replica that has replayed up to it is in sync, otherwise its lag is the age of
+ * its last replayed transaction. A database that is not in recovery, or whose WAL receiver is not streaming from the primary, is unhealthy whatever its
+ * replay position, as it no longer receives changes.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  static final String PRIMARY = "primary";
+  static final String LAST_WRITE_COOKIE = "rateyourbooks-last-write";
+
+  private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+  // The replay columns are NULL on a database that is not a replica,
+  // the receiver status is NULL if no WAL receiver runs or the user lacks pg_read_all_stats
+  private static final String REPLICA_STATUS_QUERY = """
+      SELECT pg_is_in_recovery(),
+        (SELECT status FROM pg_stat_wal_receiver),
+        pg_last_wal_replay_lsn() >= ?::pg_lsn,
+        EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())""";
+  private static final String STREAMING = "streaming";
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final Duration readYourWritesWindow;
+  private final Duration maxReplicationLag;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /**
+   * Constructs a new ReplicaRoutingDataSource. All replicas are considered healthy until their first health check.
+   *
+   * @param primary              the data source of the primary
+   * @param replicas             the data sources of the replicas
+   * @param readYourWritesWindow the time after a change of books during which the reads of the changing client stay on the primary
+   * @param maxReplicationLag    the replication lag above which a replica receives no reads
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow, Duration maxReplicationLag) {
+    this.primary = primary;
+    this.replicas = IntStream.range(0, replicas.size()).mapToObj(index -> new Replica("replica-" + index, replicas.get(index))).toList();
+    this.readYourWritesWindow = readYourWritesWindow;
+    this.maxReplicationLag = maxReplicationLag;
+
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primary);
+    this.replicas.forEach(replica -> targetDataSources.put(replica.key, replica.dataSource));
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    if (isWithinReadYourWritesWindow()) {
+      return PRIMARY;
+    }
+
+    int size = replicas.size();
+    int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (replica.healthy) {
+        return replica.key;
+      }
+    }
+    return PRIMARY;
+  }
+
+  /**
+   * Checks whether every replica can be reached, streams from the primary and is not lagging behind too far.
+   * <p>
+   * If the primary cannot be reached, the lag cannot be measured and all replicas are considered unhealthy.
+   * </p>
+   */
+  @Scheduled(fixedDelayString = "${rateyourbooks.datasource.routing.health-check-interval:PT5S}")
+  public void checkReplicas() {
+    if (replicas.isEmpty()) {
+      return;
+    }
+
+    String primaryLsn;
+    try {
+      primaryLsn = currentPrimaryLsn();
+    } catch (SQLException e) {
+      log.warn("Replication lag cannot be measured, the primary is not available: {}", e.getMessage());
+      replicas.forEach(replica -> updateHealth(replica, false));
+      return;
+    }
+    replicas.forEach(replica -> checkReplica(replica, primaryLsn));
+  }
+
+  /**
+   * Keeps the reads of the client that changed the books on the primary for the read-your-writes window.
+   *
+   * @param event the event describing the changed books
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksChanged(BooksChangedEvent event) {
+    if (!event.remote()) {
+      recordWrite();
+    }
+  }
+
+  /**
+   * Keeps the reads of the client that imported the books on the primary for the read-your-writes window.
+   *
+   * @param event the event describing the import
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksImported(BooksImportedEvent event) {
+    if (!event.remote()) {
+      recordWrite();
+    }
+  }
+
+  /**
+   * Returns whether the replica with the given key passed its last health check.
+   *
+   * @param key the key of the replica, {@code replica-<index>}
+   * @return {@code true} if the replica receives reads
+   */
+  public boolean isHealthy(String key) {
+    return replicas.stream().anyMatch(replica -> replica.key.equals(key) && replica.healthy);
+  }
+
+  /**
+   * Closes the connection pools of the replicas. The primary is left to its owner.
+   *
+   * @throws Exception if a pool cannot be closed
+   */
+  public void close() throws Exception {
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  /**
+   * Hands the time of the write to the client of the current request, later requests of the client send it back with the cookie.
+   */
+  private void recordWrite() {
+    if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+      return;
+    }
+    long writeMillis = System.currentTimeMillis();
+    // Reads later in the same request do not see the cookie yet
+    attributes.setAttribute(LAST_WRITE_COOKIE, writeMillis, RequestAttributes.SCOPE_REQUEST);
+    HttpServletResponse response = attributes.getResponse();
+    if (response != null && !response.isCommitted()) {
+      ResponseCookie cookie = ResponseCookie.from(LAST_WRITE_COOKIE, String.valueOf(writeMillis))
+          .path("/")
+          .maxAge(Duration.ofSeconds(readYourWritesWindow.toSeconds() + 1))
+          .httpOnly(true)
+          .sameSite("Lax")
+          .build();
+      response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+  }
+
+  /**
+   * Returns whether the client of the current request changed books within the read-your-writes window.
+   */
+  private boolean isWithinReadYourWritesWindow() {
+    if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+      return false;
+    }
+    Long writeMillis = (Long) attributes.getAttribute(LAST_WRITE_COOKIE, RequestAttributes.SCOPE_REQUEST);
+    if (writeMillis == null) {
+      writeMillis = lastWriteMillis(attributes.getRequest());
+    }
+    return writeMillis != null && System.currentTimeMillis() - writeMillis < readYourWritesWindow.toMillis();
+  }
+
+  private static Long lastWriteMillis(HttpServletRequest request) {
+    Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+    if (cookie == null) {
+      return null;
+    }
+    try {
+      return Long.parseLong(cookie.getValue());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private String currentPrimaryLsn() throws SQLException {
+    try (Connection connection = primary.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+
+  private void checkReplica(Replica replica, String primaryLsn) {
+    boolean healthy;
+    try (Connection connection = replica.dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(REPLICA_STATUS_QUERY)) {
+      statement.setString(1, primaryLsn);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        healthy = isHealthy(replica, resultSet);
+      }
+    } catch (SQLException e) {
+      log.warn("Replica '{}' is not available: {}", replica.key, e.getMessage());
+      healthy = false;
+    }
+    updateHealth(replica, healthy);
+  }
+
+  private boolean isHealthy(Replica replica, ResultSet status) throws SQLException {
+    if (!status.getBoolean(1)) {
+      log.warn("Replica '{}' is not in recovery and therefore no replica of the primary", replica.key);
+      return false;
+    }
+    String receiverStatus = status.getString(2);
+    if (!STREAMING.equals(receiverStatus)) {
+      log.warn("Replica '{}' does not stream from the primary, its WAL receiver is {}", replica.key,
+          receiverStatus == null ? "not running or not visible without pg_read_all_stats" : receiverStatus);
+      return false;
+    }
+    if (status.getBoolean(3)) {
+      return true;
+    }
+
+    double lagSeconds = status.getDouble(4);
+    if (status.wasNull()) {
+      log.warn("Replica '{}' has not replayed any transaction yet", replica.key);
+      return false;
+    }
+    if (lagSeconds > maxReplicationLag.toMillis() / 1000.0) {
+      log.warn("Replica '{}' lags {} s behind the primary", replica.key, lagSeconds);
+      return false;
+    }
+    return true;
+  }
+
+  private void updateHealth(Replica replica, boolean healthy) {
+    if (healthy != replica.healthy) {
+      log.info("Replica '{}' is {}", replica.key, healthy ? "healthy again and receives reads" : "unhealthy and receives no reads");
+      replica.healthy = healthy;
+    }
+  }
+
+  /**
+   * A replica with the result of its last health check.
+   */
+  private static final class Replica {
+
+    private final String key;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+
+    private Replica(String key, DataSource dataSource) {
+      this.key = key;
+      this.dataSource = dataSource;
+    }
+  }
+}
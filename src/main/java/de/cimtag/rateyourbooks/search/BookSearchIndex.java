@@ -0,0 +1,278 @@
+package de.cimtag.rateyourbooks.search;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookSearchHitDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import de.cimtag.rateyourbooks.service.BookService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory full-text index over the titles and authors of all books.
+ * <p>
+ * The index is an inverted index from the terms produced by the {@link SearchTokenizer} to the books containing them, together with the term frequency
+ * and the length of every book. Queries are ranked with Okapi BM25 and the top results are selected with a bounded heap, so searches never touch the
+ * database.
+ * </p>
+ * <p>
+ * The index is built from the {@code books} table at startup and is kept up to date with the {@link BooksChangedEvent}s of this and the other instances,
+ * bulk imports rebuild it. Searches take a shared lock, changes an exclusive one. A rebuild reads the books into a new index without holding the lock
+ * and swaps it in at the end, so searches are served from the previous index meanwhile; changes arriving during the rebuild are applied to both.
+ * Rebuilds after imports run on a background thread, and imports arriving while a rebuild is waiting share it.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+
+  private static final Comparator<BookSearchHitDto> RELEVANCE = Comparator.comparingDouble(BookSearchHitDto::score)
+      .thenComparing(hit -> hit.book().id(), Comparator.reverseOrder());
+
+  private final BookService bookService;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Lock buildLock = new ReentrantLock();
+  private final AtomicBoolean rebuildPending = new AtomicBoolean();
+  private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(
+      Thread.ofPlatform().name("search-index-rebuild").daemon().factory());
+  private Index index = new Index();
+  // Changes applied while a build reads the books, replayed on the new index before it is swapped in
+  private List<BooksChangedEvent> changesDuringBuild;
+
+  /**
+   * Builds the index from all books in the database and replaces the current index by it.
+   */
+  @PostConstruct
+  public void build() {
+    buildLock.lock();
+    try {
+      log.info("Building search index");
+
+      lock.writeLock().lock();
+      try {
+        changesDuringBuild = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      Index builtIndex = new Index();
+      boolean built = false;
+      try {
+        bookService.streamAllBooks(builtIndex::add);
+        built = true;
+      } finally {
+        lock.writeLock().lock();
+        try {
+          if (built) {
+            changesDuringBuild.forEach(builtIndex::apply);
+            index = builtIndex;
+          }
+          changesDuringBuild = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+      log.info("Built search index with {} books and {} terms", builtIndex.books.size(), builtIndex.postings.size());
+    } finally {
+      buildLock.unlock();
+    }
+  }
+
+  /**
+   * Stops rebuilding the index.
+   */
+  @PreDestroy
+  public void close() {
+    rebuildExecutor.shutdownNow();
+  }
+
+  /**
+   * Applies created, updated and deleted books to the index once their transaction has been committed.
+   *
+   * @param event the event describing the changed books
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksChanged(BooksChangedEvent event) {
+    log.debug("Updating search index with {} saved and {} deleted books", event.savedBooks().size(), event.deletedIds().size());
+
+    lock.writeLock().lock();
+    try {
+      index.apply(event);
+      if (changesDuringBuild != null) {
+        changesDuringBuild.add(event);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Rebuilds the index in the background after a bulk import once its transaction has been committed.
+   *
+   * @param event the event describing the import
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksImported(BooksImportedEvent event) {
+    if (!rebuildPending.compareAndSet(false, true)) {
+      log.debug("Search index rebuild after import of {} books is already scheduled", event.importedCount());
+      return;
+    }
+
+    log.info("Rebuilding search index after import of {} books", event.importedCount());
+    rebuildExecutor.execute(() -> {
+      rebuildPending.set(false);
+      try {
+        build();
+      } catch (RuntimeException e) {
+        log.error("Failed to rebuild search index, it stays at its previous state", e);
+      }
+    });
+  }
+
+  /**
+   * Searches the titles and authors of all books.
+   *
+   * @param query the search query, tokenized like the indexed books
+   * @param limit the maximum number of books to return
+   * @return the most relevant books for the query, most relevant first
+   */
+  public List<BookSearchHitDto> search(String query, int limit) {
+    List<String> terms = List.copyOf(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+    if (terms.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<String, Map<Long, Integer>> postings = index.postings;
+      Map<Long, IndexedBook> books = index.books;
+      if (books.isEmpty()) {
+        return List.of();
+      }
+
+      double averageLength = (double) index.totalLength / books.size();
+      Map<Long, Double> scores = new HashMap<>();
+      for (String term : terms) {
+        Map<Long, Integer> termPostings = postings.get(term);
+        if (termPostings == null) {
+          continue;
+        }
+
+        double idf = Math.log(1 + (books.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+        termPostings.forEach((id, frequency) -> {
+          double lengthNorm = 1 - B + B * books.get(id).length() / averageLength;
+          scores.merge(id, idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm), Double::sum);
+        });
+      }
+
+      PriorityQueue<BookSearchHitDto> topHits = new PriorityQueue<>(Math.min(limit, Math.max(1, scores.size())), RELEVANCE);
+      scores.forEach((id, score) -> {
+        BookSearchHitDto hit = BookSearchHitDto.builder()
+            .book(books.get(id).book())
+            .score(score)
+            .build();
+        if (topHits.size() < limit) {
+          topHits.add(hit);
+        } else if (RELEVANCE.compare(hit, topHits.peek()) > 0) {
+          topHits.poll();
+          topHits.add(hit);
+        }
+      });
+
+      List<BookSearchHitDto> result = new ArrayList<>(topHits);
+      result.sort(RELEVANCE.reversed());
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of indexed books.
+   *
+   * @return the number of indexed books
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.books.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private record IndexedBook(BookDto book, List<String> terms, int length) {
+
+  }
+
+  /**
+   * The postings and books of one build of the index.
+   */
+  private static final class Index {
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private long totalLength;
+
+    private void apply(BooksChangedEvent event) {
+      event.deletedIds().forEach(this::remove);
+      event.savedBooks().forEach(book -> {
+        remove(book.id());
+        add(book);
+      });
+    }
+
+    private void add(BookDto book) {
+      List<String> terms = new ArrayList<>(SearchTokenizer.tokenize(book.title()));
+      terms.addAll(SearchTokenizer.tokenize(book.author()));
+
+      Map<String, Integer> frequencies = new HashMap<>();
+      terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+      frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(book.id(), frequency));
+
+      books.put(book.id(), new IndexedBook(book, List.copyOf(frequencies.keySet()), terms.size()));
+      totalLength += terms.size();
+    }
+
+    private void remove(Long id) {
+      IndexedBook indexedBook = books.remove(id);
+      if (indexedBook == null) {
+        return;
+      }
+
+      for (String term : indexedBook.terms()) {
+        Map<Long, Integer> termPostings = postings.get(term);
+        termPostings.remove(id);
+        if (termPostings.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+      totalLength -= indexedBook.length();
+    }
+  }
+}
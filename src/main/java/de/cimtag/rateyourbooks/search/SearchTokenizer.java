@@ -0,0 +1,53 @@
+package de.cimtag.rateyourbooks.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms.
+ * <p>
+ * Text is folded like the {@code fold_search_text} database function: it is lower-cased and German umlauts are spelled out, so {@code Ä} and {@code ae}
+ * both become {@code ae} and {@code ß} becomes {@code ss}. Remaining diacritics are stripped, and the text is split at everything that is neither a letter
+ * nor a digit.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+public final class SearchTokenizer {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private SearchTokenizer() {
+  }
+
+  /**
+   * Tokenizes the given text.
+   *
+   * @param text the text to tokenize, may be {@code null}
+   * @return the folded terms of the text in their original order, including duplicates
+   */
+  public static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+
+    String folded = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT)
+        .replace("ä", "ae")
+        .replace("ö", "oe")
+        .replace("ü", "ue")
+        .replace("ß", "ss");
+    folded = DIACRITICS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("");
+
+    List<String> terms = new ArrayList<>();
+    for (String term : SEPARATORS.split(folded)) {
+      if (!term.isEmpty()) {
+        terms.add(term);
+      }
+    }
+    return terms;
+  }
+}
@@ -1,7 +1,14 @@
 package de.cimtag.rateyourbooks.service;
 
 import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing books.
@@ -53,21 +60,82 @@ public interface BookService {
    */
   List<BookDto> findAllBooks();
 
+  /**
+   * Searches books by title, ignoring case and umlaut spelling.
+   *
+   * @param term      the search term
+   * @param matchMode whether the title has to start with or contain the search term
+   * @param limit     the maximum number of books to return
+   * @return a list of books whose title matches the search term
+   */
+  List<BookDto> searchBooksByTitle(String term, MatchMode matchMode, int limit);
+
+  /**
+   * Searches books by author, ignoring case and umlaut spelling.
+   *
+   * @param term      the search term
+   * @param matchMode whether the author has to start with or contain the search term
+   * @param limit     the maximum number of books to return
+   * @return a list of books whose author matches the search term
+   */
+  List<BookDto> searchBooksByAuthor(String term, MatchMode matchMode, int limit);
+
+  /**
+   * Finds a page of books in ascending ID order, starting after the given cursor.
+   *
+   * @param after the ID of the last book of the previous page, or {@code null} to start with the first page
+   * @param limit the maximum number of books on the page
+   * @return the page of books together with the cursor of the next page
+   */
+  BookPageDto findBooksPage(Long after, int limit);
+
+  /**
+   * Streams all books in ascending ID order to the given consumer.
+   * <p>
+   * The books are read from a database cursor, so memory consumption does not depend on the number of books.
+   * </p>
+   *
+   * @param consumer the consumer receiving each book
+   */
+  void streamAllBooks(Consumer<BookDto> consumer);
+
   /**
    * Creates a new book.
    *
    * @param bookDto the book data transfer object containing the details of the book to create
    * @return the created book as a BookDto
+   * @throws IllegalArgumentException                                if the book already has an ID
+   * @throws org.springframework.dao.DataIntegrityViolationException if a book with the same title and author, ignoring case and umlaut spelling, exists
    */
   BookDto createBook(BookDto bookDto);
 
+  /**
+   * Creates several new books in one batch.
+   *
+   * @param bookDtos the book data transfer objects containing the details of the books to create
+   * @return the created books as BookDtos, in the order of the given books
+   * @throws IllegalArgumentException if one of the books already has an ID
+   */
+  List<BookDto> createBooks(List<BookDto> bookDtos);
+
   /**
    * Deletes a book by its ID.
    *
    * @param id the ID of the book to delete
+   * @throws de.cimtag.rateyourbooks.exception.BookNotFoundException if no book with the given ID exists
    */
   void deleteBook(Long id);
 
+  /**
+   * Deletes several books by their IDs in one batch.
+   * <p>
+   * If any of the books does not exist, none of them is deleted.
+   * </p>
+   *
+   * @param ids the IDs of the books to delete
+   */
+  void deleteBooks(List<Long> ids);
+
   /**
    * Updates an existing book.
    *
@@ -76,4 +144,64 @@ public interface BookService {
    * @return the updated book as a BookDto
    */
   BookDto updateBook(Long id, BookDto updatedBookDto);
+
+  /**
+   * Updates an existing book if it still has the expected version.
+   *
+   * @param id              the ID of the book to update
+   * @param updatedBookDto  the book data transfer object containing the updated details of the book
+   * @param expectedVersion the version the update is based on, or {@code null} to update regardless of the version
+   * @return the updated book as a BookDto
+   */
+  BookDto updateBook(Long id, BookDto updatedBookDto, Long expectedVersion);
+
+  /**
+   * Applies a partial update to an existing book without reading it first.
+   * <p>
+   * Only the non-blank title and author of the given book data transfer object are applied.
+   * </p>
+   *
+   * @param id              the ID of the book to update
+   * @param patchBookDto    the book data transfer object containing the changed details of the book
+   * @param expectedVersion the version the update is based on, or {@code null} to update regardless of the version
+   * @return the updated book as a BookDto
+   */
+  BookDto patchBook(Long id, BookDto patchBookDto, Long expectedVersion);
+
+  /**
+   * Updates several existing books in one batch.
+   * <p>
+   * Each book data transfer object has to carry the ID of the book to update. If any of the books does not exist, none of them is updated.
+   * </p>
+   *
+   * @param updatedBookDtos the book data transfer objects containing the IDs and updated details of the books
+   * @return the updated books as BookDtos, in the order of the given books
+   */
+  List<BookDto> updateBooks(List<BookDto> updatedBookDtos);
+
+  /**
+   * Imports books in bulk from a stream of CSV or NDJSON lines.
+   * <p>
+   * Invalid lines are rejected without failing the import. The input is streamed into the database, it is never held in memory as a whole.
+   * </p>
+   *
+   * @param input  the input containing one book per line, encoded in UTF-8
+   * @param format the format of the input
+   * @param merge  whether books whose title and author are already in the catalog are skipped instead of inserted again
+   * @return the number of imported, skipped and rejected books together with the first rejected lines
+   * @throws org.springframework.dao.DataIntegrityViolationException if a book is already in the catalog and the import is not merged
+   */
+  BookImportResultDto importBooks(InputStream input, BulkFormat format, boolean merge);
+
+  /**
+   * Exports all books to a stream of CSV or NDJSON lines, ordered by their IDs.
+   * <p>
+   * The books are written while they are read from the database, they are never held in memory as a whole.
+   * </p>
+   *
+   * @param output the output to write the books to, encoded in UTF-8; it is flushed but not closed
+   * @param format the format of the output
+   * @return the number of exported books
+   */
+  long exportBooks(OutputStream output, BulkFormat format);
 }
@@ -1,18 +1,48 @@
 package de.cimtag.rateyourbooks.service;
 
 import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import de.cimtag.rateyourbooks.exporter.BookExporter;
 import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.exception.BookVersionMismatchException;
+import de.cimtag.rateyourbooks.importer.BookImporter;
 import de.cimtag.rateyourbooks.model.Book;
 import de.cimtag.rateyourbooks.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Implementation of the BookService interface.
  * <p>
- * This service provides methods for various operations related to books, such as finding, creating, updating, and deleting books.
+ * This service provides methods for various operations related to books, such as finding, creating, updating, and deleting books. All find methods run
+ * in read-only transactions and read {@link BookDto} projections, so no managed entities are created for reads. Every write publishes a
+ * {@link BooksChangedEvent}, bulk imports a {@link BooksImportedEvent}.
+ * </p>
+ * <p>
+ * Lookups by ID, by title, by title and author and by author are coalesced with a {@link SingleFlight}: concurrent identical lookups share one query and
+ * its result or exception, which flattens bursts of identical requests. These methods are not transactional themselves, so waiting callers do not hold a
+ * connection; the single repository query runs in the read-only transaction of the repository.
  * </p>
  *
  * @author Niklas Witzel
@@ -23,14 +53,26 @@ import org.springframework.stereotype.Service;
 public class BookServiceImpl implements BookService {
 
   private final BookRepository bookRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BookImporter bookImporter;
+  private final BookExporter bookExporter;
+  private final EntityManager entityManager;
+
+  private final SingleFlight<Long, BookDto> lookupsById = new SingleFlight<>();
+  private final SingleFlight<String, BookDto> lookupsByTitle = new SingleFlight<>();
+  private final SingleFlight<List<String>, BookDto> lookupsByTitleAndAuthor = new SingleFlight<>();
+  private final SingleFlight<String, List<BookDto>> lookupsByAuthor = new SingleFlight<>();
 
   @Override
   public BookDto findBookById(Long id) {
-    log.info("Find book by ID '{}'", id);
+    return lookupsById.execute(id, () -> findBookByIdUncoalesced(id));
+  }
+
+  private BookDto findBookByIdUncoalesced(Long id) {
+    log.debug("Find book by ID '{}'", id);
 
-    return bookRepository.findById(id).map(book -> {
-          BookDto bookDto = book.toDto();
-          log.info("Found book with ID '{}': {}", id, bookDto);
+    return bookRepository.findDtoById(id).map(bookDto -> {
+          log.debug("Found book with ID '{}'", id);
 
           return bookDto;
         })
@@ -42,11 +84,14 @@ public class BookServiceImpl implements BookService {
 
   @Override
   public BookDto findBookByTitle(String title) {
-    log.info("Find book by title: {}", title);
+    return lookupsByTitle.execute(title, () -> findBookByTitleUncoalesced(title));
+  }
 
-    return bookRepository.findByTitle(title).map(book -> {
-          BookDto bookDto = book.toDto();
-          log.info("Found book with title '{}': {}", title, bookDto);
+  private BookDto findBookByTitleUncoalesced(String title) {
+    log.debug("Find book by title: {}", title);
+
+    return bookRepository.findDtoByTitle(title).map(bookDto -> {
+          log.debug("Found book with title '{}': ID '{}'", title, bookDto.id());
 
           return bookDto;
         })
@@ -58,11 +103,14 @@ public class BookServiceImpl implements BookService {
 
   @Override
   public BookDto findBookByTitleAndAuthor(String title, String author) {
-    log.info("Find book by title '{}' and author '{}'", title, author);
+    return lookupsByTitleAndAuthor.execute(Arrays.asList(title, author), () -> findBookByTitleAndAuthorUncoalesced(title, author));
+  }
+
+  private BookDto findBookByTitleAndAuthorUncoalesced(String title, String author) {
+    log.debug("Find book by title '{}' and author '{}'", title, author);
 
-    return bookRepository.findByTitleAndAuthor(title, author).map(book -> {
-          BookDto bookDto = book.toDto();
-          log.info("Found book with title '{}' and author '{}': {}", title, author, bookDto);
+    return bookRepository.findDtoByTitleAndAuthor(title, author).map(bookDto -> {
+          log.debug("Found book with title '{}' and author '{}': ID '{}'", title, author, bookDto.id());
 
           return bookDto;
         })
@@ -75,53 +123,268 @@ public class BookServiceImpl implements BookService {
 
   @Override
   public List<BookDto> findAllBooksByAuthor(String author) {
-    log.info("Find all books by author '{}'", author);
+    return lookupsByAuthor.execute(author, () -> findAllBooksByAuthorUncoalesced(author));
+  }
+
+  private List<BookDto> findAllBooksByAuthorUncoalesced(String author) {
+    log.debug("Find all books by author '{}'", author);
 
-    List<BookDto> bookDtos = bookRepository.findAllByAuthor(author).stream().map(Book::toDto).toList();
-    log.info("Found {} books by author '{}'", bookDtos.size(), author);
+    // Immutable, as the list is shared by all coalesced callers
+    List<BookDto> bookDtos = List.copyOf(bookRepository.findAllDtosByAuthor(author));
+    log.debug("Found {} books by author '{}'", bookDtos.size(), author);
 
     return bookDtos;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<BookDto> findAllBooks() {
-    log.info("Find all books");
+    log.debug("Find all books");
+
+    List<BookDto> bookDtos = bookRepository.findAllDtos();
+    log.debug("Found {} books", bookDtos.size());
 
-    List<BookDto> bookDtos = bookRepository.findAll().stream().map(Book::toDto).toList();
-    log.info("Found {} books", bookDtos.size());
+    return bookDtos;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<BookDto> searchBooksByTitle(String term, MatchMode matchMode, int limit) {
+    log.debug("Search books by title '{}' ({})", term, matchMode);
+
+    String escapedTerm = escapeLikePattern(term);
+    List<Book> books = switch (matchMode) {
+      case PREFIX -> bookRepository.findAllByTitlePrefix(escapedTerm, limit);
+      case SUBSTRING -> bookRepository.findAllByTitleFragment(escapedTerm, limit);
+    };
+    List<BookDto> bookDtos = books.stream().map(Book::toDto).toList();
+    log.debug("Found {} books with title matching '{}' ({})", bookDtos.size(), term, matchMode);
+
+    return bookDtos;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<BookDto> searchBooksByAuthor(String term, MatchMode matchMode, int limit) {
+    log.debug("Search books by author '{}' ({})", term, matchMode);
+
+    String escapedTerm = escapeLikePattern(term);
+    List<Book> books = switch (matchMode) {
+      case PREFIX -> bookRepository.findAllByAuthorPrefix(escapedTerm, limit);
+      case SUBSTRING -> bookRepository.findAllByAuthorFragment(escapedTerm, limit);
+    };
+    List<BookDto> bookDtos = books.stream().map(Book::toDto).toList();
+    log.debug("Found {} books with author matching '{}' ({})", bookDtos.size(), term, matchMode);
 
     return bookDtos;
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public BookPageDto findBooksPage(Long after, int limit) {
+    log.debug("Find books page after ID '{}' with limit {}", after, limit);
+
+    long cursor = after != null ? after : 0L;
+    List<BookDto> bookDtos = bookRepository.findDtosByIdGreaterThan(cursor, Limit.of(limit));
+    Long nextCursor = bookDtos.size() == limit ? bookDtos.getLast().id() : null;
+    log.debug("Found {} books after ID '{}', next cursor '{}'", bookDtos.size(), after, nextCursor);
+
+    return BookPageDto.builder()
+        .books(bookDtos)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAllBooks(Consumer<BookDto> consumer) {
+    log.debug("Stream all books");
+
+    try (Stream<BookDto> books = bookRepository.streamAll()) {
+      books.forEach(consumer);
+    }
+    log.debug("Streamed all books");
+  }
+
   @Override
   public BookDto createBook(BookDto bookDto) {
-    log.info("Create new book: {}", bookDto);
+    log.info("Create new book with title '{}'", bookDto.title());
+
+    // A book with an ID would be persisted as a detached entity, as its version is not set
+    if (bookDto.id() != null) {
+      throw new IllegalArgumentException("A new book must not have an ID!");
+    }
 
     Book book = bookRepository.save(bookDto.toEntity());
     BookDto createdBookDto = book.toDto();
-    log.info("Created book: {}", createdBookDto);
+    log.info("Created book with ID '{}'", createdBookDto.id());
+    eventPublisher.publishEvent(BooksChangedEvent.saved(List.of(createdBookDto)));
 
     return createdBookDto;
   }
 
   @Override
+  @Transactional
+  public List<BookDto> createBooks(List<BookDto> bookDtos) {
+    log.info("Create {} new books", bookDtos.size());
+
+    if (bookDtos.stream().anyMatch(bookDto -> bookDto.id() != null)) {
+      throw new IllegalArgumentException("New books must not have an ID!");
+    }
+
+    List<Book> books = bookRepository.saveAll(bookDtos.stream().map(BookDto::toEntity).toList());
+    List<BookDto> createdBookDtos = books.stream().map(Book::toDto).toList();
+    log.info("Created {} books", createdBookDtos.size());
+    eventPublisher.publishEvent(BooksChangedEvent.saved(createdBookDtos));
+
+    return createdBookDtos;
+  }
+
+  @Override
+  @Transactional
   public void deleteBook(Long id) {
     log.info("Delete book with ID '{}'", id);
 
-    bookRepository.deleteById(id);
+    if (bookRepository.removeById(id) == 0) {
+      log.warn("Book with ID '{}' not found for deletion", id);
+      throw new BookNotFoundException("Book with ID '" + id + "' not found for deletion!");
+    }
     log.info("Deleted book with ID '{}'", id);
+    eventPublisher.publishEvent(BooksChangedEvent.deleted(List.of(id)));
+  }
+
+  @Override
+  @Transactional
+  public void deleteBooks(List<Long> ids) {
+    log.info("Delete {} books", ids.size());
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    // The native statement bypasses the persistence context, so pending changes are written first and the deleted books are detached afterwards
+    entityManager.flush();
+    Set<Long> deletedIds = new HashSet<>(bookRepository.removeAllByIdIn(ids));
+    entityManager.clear();
+    List<Long> missingIds = ids.stream().filter(id -> !deletedIds.contains(id)).distinct().toList();
+    if (!missingIds.isEmpty()) {
+      // Rolls back the deletion of the existing books, so either all or none of the books are deleted
+      log.warn("Books with IDs {} not found for deletion", missingIds);
+      throw new BookNotFoundException("Books with IDs " + missingIds + " not found for deletion!");
+    }
+    log.info("Deleted {} books", deletedIds.size());
+    eventPublisher.publishEvent(BooksChangedEvent.deleted(List.copyOf(deletedIds)));
   }
 
   @Override
+  @Transactional
   public BookDto updateBook(Long id, BookDto updatedBookDto) {
+    return updateBook(id, updatedBookDto, null);
+  }
+
+  @Override
+  @Transactional
+  public BookDto updateBook(Long id, BookDto updatedBookDto, Long expectedVersion) {
     log.info("Update book with ID '{}'", id);
 
+    // Reads, checks and saves in one read-write transaction, so the version is checked against the current row on the primary
     Book existingBook = bookRepository.findById(id)
         .orElseThrow(() -> {
           log.warn("Book with ID '{}' not found for update", id);
           return new BookNotFoundException("Book with ID '" + id + "' not found for update!");
         });
 
+    if (expectedVersion != null && !expectedVersion.equals(existingBook.getVersion())) {
+      log.warn("Book with ID '{}' has version '{}' instead of expected version '{}'", id, existingBook.getVersion(), expectedVersion);
+      throw new BookVersionMismatchException("Book with ID '" + id + "' has been modified since version '" + expectedVersion + "'!");
+    }
+
+    applyUpdate(existingBook, updatedBookDto);
+
+    // Flushes before mapping, so the returned book carries the incremented version
+    Book updatedBook = bookRepository.saveAndFlush(existingBook);
+    BookDto updatedBookDtoResponse = updatedBook.toDto();
+    log.info("Updated book with ID '{}'", id);
+    eventPublisher.publishEvent(BooksChangedEvent.saved(List.of(updatedBookDtoResponse)));
+
+    return updatedBookDtoResponse;
+  }
+
+  @Override
+  @Transactional
+  public BookDto patchBook(Long id, BookDto patchBookDto, Long expectedVersion) {
+    log.info("Patch book with ID '{}'", id);
+
+    if (bookRepository.patchById(id, nonBlankOrNull(patchBookDto.title()), nonBlankOrNull(patchBookDto.author()), expectedVersion) == 0) {
+      if (expectedVersion != null && bookRepository.existsById(id)) {
+        log.warn("Book with ID '{}' does not have expected version '{}'", id, expectedVersion);
+        throw new BookVersionMismatchException("Book with ID '" + id + "' has been modified since version '" + expectedVersion + "'!");
+      }
+      log.warn("Book with ID '{}' not found for patch", id);
+      throw new BookNotFoundException("Book with ID '" + id + "' not found for patch!");
+    }
+
+    // Read back in the same transaction, so the returned book carries the incremented version and the new timestamp
+    BookDto patchedBookDto = bookRepository.findDtoById(id).orElseThrow();
+    log.info("Patched book with ID '{}'", id);
+    eventPublisher.publishEvent(BooksChangedEvent.saved(List.of(patchedBookDto)));
+
+    return patchedBookDto;
+  }
+
+  @Override
+  @Transactional
+  public List<BookDto> updateBooks(List<BookDto> updatedBookDtos) {
+    log.info("Update {} books", updatedBookDtos.size());
+
+    if (updatedBookDtos.stream().anyMatch(bookDto -> bookDto.id() == null)) {
+      throw new IllegalArgumentException("Every book of a batch update must have an ID!");
+    }
+
+    Map<Long, Book> existingBooks = findAllExistingBooks(updatedBookDtos.stream().map(BookDto::id).toList(), "update");
+    updatedBookDtos.forEach(bookDto -> applyUpdate(existingBooks.get(bookDto.id()), bookDto));
+    // Flushes before mapping, so the returned books carry the incremented versions
+    bookRepository.saveAllAndFlush(existingBooks.values());
+
+    List<BookDto> updatedBooks = updatedBookDtos.stream().map(bookDto -> existingBooks.get(bookDto.id()).toDto()).toList();
+    log.info("Updated {} books", updatedBooks.size());
+    eventPublisher.publishEvent(BooksChangedEvent.saved(updatedBooks));
+
+    return updatedBooks;
+  }
+
+  @Override
+  @Transactional
+  public BookImportResultDto importBooks(InputStream input, BulkFormat format, boolean merge) {
+    log.info("Import books from {}", format);
+
+    BookImportResultDto result = bookImporter.importBooks(input, format, merge);
+    if (result.imported() > 0) {
+      eventPublisher.publishEvent(new BooksImportedEvent(result.imported(), false));
+    }
+
+    return result;
+  }
+
+  @Override
+  public long exportBooks(OutputStream output, BulkFormat format) {
+    log.info("Export books as {}", format);
+
+    return bookExporter.exportBooks(output, format);
+  }
+
+  private Map<Long, Book> findAllExistingBooks(List<Long> ids, String operation) {
+    Map<Long, Book> existingBooks = bookRepository.findAllById(ids).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+
+    List<Long> missingIds = ids.stream().filter(id -> !existingBooks.containsKey(id)).distinct().toList();
+    if (!missingIds.isEmpty()) {
+      log.warn("Books with IDs {} not found for {}", missingIds, operation);
+      throw new BookNotFoundException("Books with IDs " + missingIds + " not found for " + operation + "!");
+    }
+
+    return existingBooks;
+  }
+
+  private static void applyUpdate(Book existingBook, BookDto updatedBookDto) {
     if (updatedBookDto.title() != null && !updatedBookDto.title().isBlank()) {
       existingBook.setTitle(updatedBookDto.title());
     }
@@ -129,11 +392,15 @@ public class BookServiceImpl implements BookService {
     if (updatedBookDto.author() != null && !updatedBookDto.author().isBlank()) {
       existingBook.setAuthor(updatedBookDto.author());
     }
+  }
 
-    Book updatedBook = bookRepository.save(existingBook);
-    BookDto updatedBookDtoResponse = updatedBook.toDto();
-    log.info("Updated book with ID '{}': {}", id, updatedBookDtoResponse);
+  private static String nonBlankOrNull(String value) {
+    return value != null && !value.isBlank() ? value : null;
+  }
 
-    return updatedBookDtoResponse;
+  private static String escapeLikePattern(String term) {
+    return term.replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
   }
 }
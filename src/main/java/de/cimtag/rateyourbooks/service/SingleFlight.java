@@ -0,0 +1,74 @@
+package de.cimtag.rateyourbooks.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls into a single execution.
+ * <p>
+ * The first caller for a key executes the call, callers arriving with the same key while it is in flight wait for it and receive its result or its
+ * exception. Once the call has completed, the next caller executes it again, so results are never reused beyond the calls that overlapped. A waiting
+ * caller may therefore receive a result read shortly before its own call, just like from a cache.
+ * </p>
+ *
+ * @param <K> the type of the keys identifying identical calls
+ * @param <V> the type of the results
+ * @author Niklas Witzel
+ */
+final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+  /**
+   * Executes the call, or waits for the identical call in flight.
+   *
+   * @param key  the key identifying identical calls
+   * @param call the call to execute
+   * @return the result of the call
+   */
+  V execute(K key, Supplier<V> call) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+    if (inFlight != null) {
+      return await(inFlight);
+    }
+
+    try {
+      V result = call.get();
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  /**
+   * Returns the number of calls in flight.
+   *
+   * @return the number of distinct keys currently executed
+   */
+  int inFlight() {
+    return flights.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      // Rethrown unwrapped, so waiting callers see the same exception as the executing one
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
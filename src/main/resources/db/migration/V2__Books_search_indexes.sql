@@ -0,0 +1,21 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Folds text for case-insensitive, umlaut-insensitive matching ('Ä' and 'ae' both become 'ae')
+CREATE FUNCTION fold_search_text(value TEXT) RETURNS TEXT
+    LANGUAGE sql
+    IMMUTABLE
+    STRICT
+    PARALLEL SAFE
+AS
+$$
+SELECT replace(replace(replace(replace(lower(translate(value, 'ÄÖÜ', 'äöü')), 'ä', 'ae'), 'ö', 'oe'), 'ü', 'ue'), 'ß', 'ss')
+$$;
+
+CREATE INDEX idx_books_author ON books (author);
+CREATE INDEX idx_books_title_author ON books (title, author);
+
+CREATE INDEX idx_books_title_folded ON books (fold_search_text(title) text_pattern_ops);
+CREATE INDEX idx_books_author_folded ON books (fold_search_text(author) text_pattern_ops);
+
+CREATE INDEX idx_books_title_folded_trgm ON books USING gin (fold_search_text(title) gin_trgm_ops);
+CREATE INDEX idx_books_author_folded_trgm ON books USING gin (fold_search_text(author) gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- Replaces the identity column by a sequence with an increment matching Hibernate's allocation size, so inserts can be batched
+CREATE SEQUENCE books_seq INCREMENT BY 50;
+SELECT setval('books_seq', COALESCE((SELECT MAX(id) FROM books), 0) + 1, false);
+
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE books ALTER COLUMN id SET DEFAULT nextval('books_seq');
+ALTER SEQUENCE books_seq OWNED BY books.id;
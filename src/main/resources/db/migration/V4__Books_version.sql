@@ -0,0 +1,3 @@
+-- Adds the optimistic locking version and the modification timestamp used for ETag and Last-Modified headers
+ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE books ADD COLUMN last_modified TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
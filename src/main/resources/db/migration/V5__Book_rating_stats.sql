@@ -0,0 +1,7 @@
+-- Aggregated ratings per book; written in periodic batches by the application instead of storing every single rating
+CREATE TABLE book_rating_stats
+(
+    book_id      BIGINT PRIMARY KEY REFERENCES books (id) ON DELETE CASCADE,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum   BIGINT NOT NULL DEFAULT 0
+);
@@ -0,0 +1,18 @@
+-- Makes title and author unique up to case and umlaut spelling, so concurrent imports and creations cannot insert the same book twice.
+-- Existing duplicates are merged into the book with the lowest ID first, together with their ratings.
+CREATE TEMPORARY TABLE book_duplicates ON COMMIT DROP AS
+SELECT id, kept_id
+FROM (SELECT id, first_value(id) OVER (PARTITION BY fold_search_text(title), fold_search_text(author) ORDER BY id) AS kept_id FROM books) books
+WHERE id <> kept_id;
+
+INSERT INTO book_rating_stats (book_id, rating_count, rating_sum)
+SELECT d.kept_id, sum(s.rating_count), sum(s.rating_sum)
+FROM book_duplicates d
+         JOIN book_rating_stats s ON s.book_id = d.id
+GROUP BY d.kept_id
+ON CONFLICT (book_id) DO UPDATE SET rating_count = book_rating_stats.rating_count + EXCLUDED.rating_count,
+                                    rating_sum   = book_rating_stats.rating_sum + EXCLUDED.rating_sum;
+
+DELETE FROM books WHERE id IN (SELECT id FROM book_duplicates);
+
+CREATE UNIQUE INDEX uq_books_title_author_folded ON books (fold_search_text(title), fold_search_text(author));
@@ -0,0 +1,177 @@
+package de.cimtag.rateyourbooks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke test of the GraalVM native image, compared with the JVM jar.
+ * <p>
+ * Both the native binary and the jar are started as separate processes against the database on port 5432 and run through the endpoints of the
+ * {@code BookController}, covering Hibernate, Flyway, the caches, the search index, content negotiation and springdoc. For both, the time until the first
+ * successful health check and the resident set size after startup and after the requests are reported.
+ * </p>
+ * <p>
+ * Build both with {@code mvn -Pnative -DskipTests package native:compile}, then run with {@code mvn test -Pnative-smoke}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Tag("native")
+@Slf4j
+class NativeImageSmokeTest {
+
+  private static final Path NATIVE_BINARY = Path.of(System.getProperty("native.binary", "target/rate-your-books"));
+  private static final Path JAR = Path.of(System.getProperty("jvm.jar", "target/rate-your-books-0.0.1-SNAPSHOT.jar"));
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+  private static final Pattern ID_PATTERN = Pattern.compile("\"id\":(\\d+)");
+  private static final Pattern RSS_PATTERN = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+  private static final List<StartupResult> RESULTS = new ArrayList<>();
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void testBookEndpointsOnNativeImage() throws Exception {
+    assertThat("Native binary " + NATIVE_BINARY + " not built", Files.isExecutable(NATIVE_BINARY), is(true));
+    run("native", List.of(NATIVE_BINARY.toString()));
+  }
+
+  @Test
+  void testBookEndpointsOnJvm() throws Exception {
+    assertThat("Jar " + JAR + " not built", Files.isRegularFile(JAR), is(true));
+    run("jvm", List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", JAR.toString()));
+  }
+
+  @AfterAll
+  static void reportStartup() {
+    log.info("Mode   | Startup (ms) | RSS after startup (MiB) | RSS after requests (MiB)");
+    RESULTS.forEach(result -> log.info(result.format()));
+  }
+
+  private void run(String mode, List<String> command) throws Exception {
+    int port = freePort();
+    List<String> arguments = new ArrayList<>(command);
+    arguments.add("--server.port=" + port);
+
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(arguments)
+        .redirectErrorStream(true)
+        .redirectOutput(Path.of("target", "native-smoke-" + mode + ".log").toFile())
+        .start();
+    try {
+      String baseUrl = "http://localhost:" + port;
+      awaitHealthy(process, baseUrl);
+      long startupMillis = (System.nanoTime() - start) / 1_000_000;
+      long rssAfterStartup = rssKiB(process);
+
+      exerciseBookEndpoints(baseUrl + "/api/books");
+      assertThat(get(baseUrl + "/v3/api-docs", "application/json").statusCode(), is(200));
+
+      RESULTS.add(new StartupResult(mode, startupMillis, rssAfterStartup, rssKiB(process)));
+    } finally {
+      process.destroy();
+      process.waitFor();
+    }
+  }
+
+  private void exerciseBookEndpoints(String baseUrl) throws Exception {
+    HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(baseUrl))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString("{\"title\":\"Native Book\", \"author\":\"Native Author\"}")));
+    assertThat(created.statusCode(), is(201));
+    Matcher matcher = ID_PATTERN.matcher(created.body());
+    assertThat(matcher.find(), is(true));
+    String bookUrl = baseUrl + "/" + matcher.group(1);
+
+    try {
+      assertThat(get(bookUrl, "application/json").body(), containsString("\"title\":\"Native Book\""));
+      assertThat(get(baseUrl + "?author=Native%20Author", "application/json").body(), containsString("\"title\":\"Native Book\""));
+      assertThat(get(baseUrl + "/search?q=native", "application/json").body(), containsString("\"title\":\"Native Book\""));
+      assertThat(get(bookUrl, "application/cbor").headers().firstValue("Content-Type").orElse(""), is("application/cbor"));
+
+      HttpResponse<String> updated = send(HttpRequest.newBuilder(URI.create(bookUrl))
+          .header("Content-Type", "application/json")
+          .PUT(BodyPublishers.ofString("{\"title\":\"Native Book Updated\", \"author\":\"Native Author\"}")));
+      assertThat(updated.statusCode(), is(200));
+
+      HttpResponse<String> rated = send(HttpRequest.newBuilder(URI.create(bookUrl + "/ratings"))
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofString("{\"score\":5}")));
+      assertThat(rated.statusCode(), is(202));
+
+      assertThat(get(baseUrl + "/export?format=CSV", "*/*").body(), containsString("Native Book Updated"));
+    } finally {
+      assertThat(send(HttpRequest.newBuilder(URI.create(bookUrl)).DELETE()).statusCode(), is(200));
+    }
+    assertThat(get(bookUrl, "application/json").statusCode(), is(404));
+  }
+
+  private void awaitHealthy(Process process, String baseUrl) throws InterruptedException {
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("Application exited with code " + process.exitValue() + " during startup");
+      }
+      try {
+        if (get(baseUrl + "/actuator/health", "application/json").statusCode() == 200) {
+          return;
+        }
+      } catch (IOException e) {
+        // Not listening yet
+      }
+      Thread.sleep(10);
+    }
+    throw new IllegalStateException("Application not healthy within " + STARTUP_TIMEOUT);
+  }
+
+  private HttpResponse<String> get(String url, String accept) throws IOException, InterruptedException {
+    return send(HttpRequest.newBuilder(URI.create(url)).header("Accept", accept).GET());
+  }
+
+  private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+    return httpClient.send(request.build(), BodyHandlers.ofString());
+  }
+
+  private static long rssKiB(Process process) throws IOException {
+    Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+    if (!Files.isReadable(status)) {
+      return -1;
+    }
+    Matcher matcher = RSS_PATTERN.matcher(Files.readString(status));
+    return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private record StartupResult(String mode, long startupMillis, long rssAfterStartupKiB, long rssAfterRequestsKiB) {
+
+    String format() {
+      return String.format("%-6s | %12d | %23.1f | %24.1f", mode, startupMillis, rssAfterStartupKiB / 1024.0, rssAfterRequestsKiB / 1024.0);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package de.cimtag.rateyourbooks.admission;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.cimtag.rateyourbooks.config.AdmissionControlProperties;
+import de.cimtag.rateyourbooks.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Unit tests for the AdmissionControlInterceptor and the AdmissionLimiter.
+ *
+ * @author Niklas Witzel
+ */
+class AdmissionControlInterceptorTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AdmissionLimiter readLimiter;
+  private AdmissionLimiter writeLimiter;
+  private AdmissionLimiter streamLimiter;
+  private AdmissionControlInterceptor interceptor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    AdmissionControlProperties.Limit limit = new AdmissionControlProperties.Limit(1, 1, 1, 0, Duration.ZERO);
+    readLimiter = new AdmissionLimiter("reads", limit, meterRegistry);
+    writeLimiter = new AdmissionLimiter("writes", limit, meterRegistry);
+    streamLimiter = new AdmissionLimiter("streams", new AdmissionControlProperties.FixedLimit(1), meterRegistry);
+    interceptor = new AdmissionControlInterceptor(readLimiter, writeLimiter, streamLimiter, Duration.ofSeconds(2));
+  }
+
+  @Test
+  void testRejectsRequestsBeyondLimit() {
+    MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/books/1");
+    interceptor.preHandle(first, new MockHttpServletResponse(), null);
+
+    ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+        () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/2"), new MockHttpServletResponse(), null));
+    assertThat(e.getRetryAfter(), is(Duration.ofSeconds(2)));
+    assertThat(readLimiter.getInFlight(), is(1));
+    assertThat(meterRegistry.get("books.admission.shed").tag("endpoints", "reads").counter().count(), is(1.0));
+  }
+
+  @Test
+  void testLimitsReadsAndWritesSeparately() {
+    interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/1"), new MockHttpServletResponse(), null);
+    interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/books/1"), new MockHttpServletResponse(), null);
+
+    assertThat(readLimiter.getInFlight(), is(1));
+    assertThat(writeLimiter.getInFlight(), is(1));
+  }
+
+  @Test
+  void testLimitsStreamsSeparatelyFromReads() throws NoSuchMethodException {
+    HandlerMethod export = new HandlerMethod(new StreamingHandler(), "export");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/export");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    interceptor.preHandle(request, response, export);
+
+    assertThat(streamLimiter.getInFlight(), is(1));
+    assertThat(readLimiter.getInFlight(), is(0));
+    interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/1"), new MockHttpServletResponse(), null);
+    assertThrows(ServiceOverloadedException.class,
+        () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/export"), new MockHttpServletResponse(), export));
+
+    interceptor.afterCompletion(request, response, export, null);
+    assertThat(streamLimiter.getInFlight(), is(0));
+    assertThat(streamLimiter.getLimit(), is(1));
+  }
+
+  @Test
+  void testReleasesPermitOnCompletion() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    interceptor.preHandle(request, response, null);
+
+    interceptor.afterCompletion(request, response, null, null);
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(readLimiter.getInFlight(), is(0));
+    interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/2"), new MockHttpServletResponse(), null);
+    assertThat(readLimiter.getInFlight(), is(1));
+  }
+
+  @Test
+  void testQueuedRequestIsAdmittedWhenSlotIsFreed() throws InterruptedException {
+    AdmissionLimiter limiter = new AdmissionLimiter("queued", new AdmissionControlProperties.Limit(1, 1, 1, 1, Duration.ofSeconds(5)), meterRegistry);
+    AdmissionLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+
+    Thread waiting = Thread.ofVirtual().start(() -> limiter.tryAcquire().orElseThrow());
+    while (limiter.getQueued() == 0) {
+      Thread.sleep(1);
+    }
+    permit.release(false);
+    waiting.join();
+
+    assertThat(limiter.getQueued(), is(0));
+    assertThat(limiter.getInFlight(), is(1));
+  }
+
+  /**
+   * Handler with a streaming response like the export endpoint.
+   */
+  static class StreamingHandler {
+
+    public ResponseEntity<StreamingResponseBody> export() {
+      return ResponseEntity.ok(outputStream -> {
+      });
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package de.cimtag.rateyourbooks.admission;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the VegasLimit.
+ *
+ * @author Niklas Witzel
+ */
+class VegasLimitTest {
+
+  private static final long MILLIS = 1_000_000;
+
+  @Test
+  void testLimitGrowsWhileLatencyStaysLow() {
+    VegasLimit limit = new VegasLimit(20, 4, 200);
+    limit.onSample(10 * MILLIS, 20, false);
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(10 * MILLIS, limit.getLimit(), false);
+    }
+
+    assertThat(limit.getLimit(), greaterThan(20));
+  }
+
+  @Test
+  void testLimitShrinksWhenLatencyRises() {
+    VegasLimit limit = new VegasLimit(100, 4, 200);
+    limit.onSample(10 * MILLIS, 100, false);
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(50 * MILLIS, limit.getLimit(), false);
+    }
+
+    assertThat(limit.getLimit(), lessThan(100));
+  }
+
+  @Test
+  void testLimitShrinksOnDrops() {
+    VegasLimit limit = new VegasLimit(100, 4, 200);
+    limit.onSample(10 * MILLIS, 100, false);
+
+    limit.onSample(10 * MILLIS, 100, true);
+
+    assertThat(limit.getLimit(), lessThan(100));
+  }
+
+  @Test
+  void testLimitUnchangedWhileMostlyIdle() {
+    VegasLimit limit = new VegasLimit(100, 4, 200);
+    limit.onSample(10 * MILLIS, 1, false);
+
+    limit.onSample(50 * MILLIS, 10, false);
+
+    assertThat(limit.getLimit(), is(100));
+  }
+
+  @Test
+  void testLimitStaysWithinBounds() {
+    VegasLimit limit = new VegasLimit(5, 4, 6);
+    limit.onSample(10 * MILLIS, 5, false);
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(10 * MILLIS, limit.getLimit(), false);
+    }
+    assertThat(limit.getLimit(), is(6));
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(10 * MILLIS, limit.getLimit(), true);
+    }
+    assertThat(limit.getLimit(), is(4));
+  }
+}
@@ -0,0 +1,39 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logging setup for benchmarks that run application code outside of a Spring context.
+ * <p>
+ * The log levels mirror {@code application.properties}. Log events are formatted like by a real appender and then discarded, so the benchmarks include
+ * the cost of building log messages without measuring console or file output.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+final class BenchmarkLogging {
+
+  private BenchmarkLogging() {
+  }
+
+  static void formatAndDiscard() {
+    Logger rootLogger = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    rootLogger.detachAndStopAllAppenders();
+    rootLogger.setLevel(Level.INFO);
+    ((Logger) LoggerFactory.getLogger("de.cimtag.rateyourbooks")).setLevel(Level.INFO);
+
+    AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        event.getFormattedMessage();
+      }
+    };
+    appender.setContext(rootLogger.getLoggerContext());
+    appender.start();
+    rootLogger.addAppender(appender);
+  }
+}
@@ -0,0 +1,85 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import de.cimtag.rateyourbooks.config.LoggingProperties;
+import de.cimtag.rateyourbooks.controller.BookController;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.logging.RequestLogging;
+import de.cimtag.rateyourbooks.monitoring.BookMetrics;
+import de.cimtag.rateyourbooks.rating.BookRatings;
+import de.cimtag.rateyourbooks.repository.BookRatingStatsRepository;
+import de.cimtag.rateyourbooks.search.BookSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Microbenchmarks for the branching and logging in {@link BookController#searchBooks(String, String, NativeWebRequest)}.
+ * <p>
+ * The controller is backed by a {@link StubBookService}, so the benchmarks measure the controller itself, including the formatting of its log messages,
+ * but neither the database nor the HTTP layer.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookControllerSearchBenchmark {
+
+  @Param({"10", "1000"})
+  public int size;
+
+  private BookController bookController;
+  private NativeWebRequest request;
+
+  @Setup
+  public void setup() {
+    BenchmarkLogging.formatAndDiscard();
+    request = new ServletWebRequest(new MockHttpServletRequest());
+    StubBookService bookService = new StubBookService(size);
+    bookController = new BookController(bookService, Jackson2ObjectMapperBuilder.json().build(),
+        new BookMetrics(new SimpleMeterRegistry()), new RequestLogging(
+            new LoggingProperties(new LoggingProperties.Async(false, 8192, 0, true), 200, 20, 1.0, Map.of())),
+        new BookSearchIndex(bookService), new BookRatings(new JdbcTemplate(), mock(BookRatingStatsRepository.class), new TransactionTemplate()),
+        new ContentNegotiationManager());
+  }
+
+  @Benchmark
+  public ResponseEntity<List<BookDto>> searchByTitle() {
+    return bookController.searchBooks("Eine kurze Geschichte der Menschheit", null, request);
+  }
+
+  @Benchmark
+  public ResponseEntity<List<BookDto>> searchByTitleAndAuthor() {
+    return bookController.searchBooks("Eine kurze Geschichte der Menschheit", "Yuval Noah Harari", request);
+  }
+
+  @Benchmark
+  public ResponseEntity<List<BookDto>> searchByAuthor() {
+    return bookController.searchBooks(null, "Yuval Noah Harari", request);
+  }
+
+  @Benchmark
+  public ResponseEntity<List<BookDto>> searchAll() {
+    return bookController.searchBooks(" ", " ", request);
+  }
+}
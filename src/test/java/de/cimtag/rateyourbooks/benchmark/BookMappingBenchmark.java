@@ -0,0 +1,42 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.model.Book;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Microbenchmarks for the mapping between {@link Book} entities and {@link BookDto}s.
+ *
+ * @author Niklas Witzel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookMappingBenchmark {
+
+  private Book book;
+  private BookDto bookDto;
+
+  @Setup
+  public void setup() {
+    book = BookTestData.book(1L);
+    bookDto = BookTestData.bookDto(1L);
+  }
+
+  @Benchmark
+  public BookDto bookToDto() {
+    return book.toDto();
+  }
+
+  @Benchmark
+  public Book bookDtoToEntity() {
+    return bookDto.toEntity();
+  }
+}
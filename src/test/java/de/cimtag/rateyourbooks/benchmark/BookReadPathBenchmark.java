@@ -0,0 +1,99 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import de.cimtag.rateyourbooks.RateYourBooksApplication;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.model.Book;
+import de.cimtag.rateyourbooks.repository.BookRepository;
+import de.cimtag.rateyourbooks.service.BookServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmarks comparing the entity read path with the {@link BookDto} projection read path of the list queries.
+ * <p>
+ * The entity variants load managed {@link Book} entities in a read-write transaction and map them with {@link Book#toDto()}, as the service did before.
+ * The projection variants call the {@link BookServiceImpl}, which reads {@link BookDto}s in read-only transactions. The application context is started
+ * without a web server against the test database, which is seeded with {@code size} books of one author.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookReadPathBenchmark {
+
+  private static final String AUTHOR = "Read Path Benchmark Author";
+
+  @Param({"100", "1000"})
+  public int size;
+
+  private ConfigurableApplicationContext context;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+  private EntityManager entityManager;
+  private BookRepository bookRepository;
+  private BookServiceImpl bookService;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(RateYourBooksApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("rateyourbooks.cache.enabled=false", "logging.level.de.cimtag.rateyourbooks=WARN")
+        .run();
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+    entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+    bookRepository = context.getBean(BookRepository.class);
+    bookService = context.getBean(BookServiceImpl.class);
+
+    jdbcTemplate.update("INSERT INTO books (title, author) SELECT 'Read Path Title ' || n, ? FROM generate_series(1, ?) n", AUTHOR, size);
+  }
+
+  @TearDown
+  public void tearDown() {
+    jdbcTemplate.update("DELETE FROM books WHERE author = ?", AUTHOR);
+    context.close();
+  }
+
+  @Benchmark
+  public List<BookDto> findAllBooksByAuthorAsEntities() {
+    return transactionTemplate.execute(status -> entityManager.createQuery("select b from Book b where b.author = :author", Book.class)
+        .setParameter("author", AUTHOR)
+        .getResultStream()
+        .map(Book::toDto)
+        .toList());
+  }
+
+  @Benchmark
+  public List<BookDto> findAllBooksByAuthorAsProjection() {
+    return bookService.findAllBooksByAuthor(AUTHOR);
+  }
+
+  @Benchmark
+  public List<BookDto> findAllBooksAsEntities() {
+    return transactionTemplate.execute(status -> bookRepository.findAll().stream().map(Book::toDto).toList());
+  }
+
+  @Benchmark
+  public List<BookDto> findAllBooksAsProjection() {
+    return bookService.findAllBooks();
+  }
+}
@@ -0,0 +1,61 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Microbenchmarks for the Jackson serialization of {@link BookDto} lists, as done for the list endpoints of the BookController.
+ * <p>
+ * The {@link ObjectMapper}s are built with Spring's {@link Jackson2ObjectMapperBuilder}, which applies the same defaults as the application. Lists are
+ * encoded as JSON and as CBOR, the binary format offered via content negotiation; the payload sizes of both are logged once per list size.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Slf4j
+public class BookSerializationBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int size;
+
+  private ObjectMapper objectMapper;
+  private ObjectMapper cborMapper;
+  private List<BookDto> bookDtos;
+
+  @Setup
+  public void setup() throws JsonProcessingException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    bookDtos = BookTestData.bookDtos(size);
+
+    int jsonBytes = objectMapper.writeValueAsBytes(bookDtos).length;
+    int cborBytes = cborMapper.writeValueAsBytes(bookDtos).length;
+    log.info("Payload of {} books: JSON {} bytes, CBOR {} bytes ({} %)", size, jsonBytes, cborBytes, Math.round(100.0 * cborBytes / jsonBytes));
+  }
+
+  @Benchmark
+  public byte[] serializeBookList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(bookDtos);
+  }
+
+  @Benchmark
+  public byte[] serializeBookListAsCbor() throws JsonProcessingException {
+    return cborMapper.writeValueAsBytes(bookDtos);
+  }
+}
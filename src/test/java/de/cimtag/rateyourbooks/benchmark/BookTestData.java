@@ -0,0 +1,33 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.model.Book;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Test data shared by the benchmarks.
+ *
+ * @author Niklas Witzel
+ */
+final class BookTestData {
+
+  private BookTestData() {
+  }
+
+  static Book book(long id) {
+    return Book.builder()
+        .id(id)
+        .title("Eine kurze Geschichte der Menschheit, Band " + id)
+        .author("Yuval Noah Harari")
+        .build();
+  }
+
+  static BookDto bookDto(long id) {
+    return book(id).toDto();
+  }
+
+  static List<BookDto> bookDtos(int count) {
+    return LongStream.rangeClosed(1, count).mapToObj(BookTestData::bookDto).toList();
+  }
+}
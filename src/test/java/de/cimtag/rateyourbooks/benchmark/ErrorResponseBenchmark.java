@@ -0,0 +1,33 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import de.cimtag.rateyourbooks.dto.ErrorResponseDto;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Microbenchmark for the construction of {@link ErrorResponseDto}s, as done by the BookControllerExceptionHandler for every failed request.
+ *
+ * @author Niklas Witzel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorResponseBenchmark {
+
+  public long id = 42L;
+
+  @Benchmark
+  public ErrorResponseDto buildErrorResponse() {
+    return ErrorResponseDto.builder()
+        .code(HttpStatus.NOT_FOUND)
+        .title("BOOK_NOT_FOUND")
+        .detail("Book with ID '" + id + "' not found!")
+        .build();
+  }
+}
@@ -0,0 +1,40 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH microbenchmarks of this package.
+ * <p>
+ * Every benchmark runs with the GC profiler, so next to the average time per operation the results contain the normalized allocation rate
+ * ({@code gc.alloc.rate.norm}, bytes per operation). The results are written to {@code target/jmh-result.json}.
+ * </p>
+ * <p>
+ * Run all benchmarks with {@code mvn test -Pbenchmark -Dtest=JmhBenchmarkTest}, or a subset with {@code -Djmh.include=<regex>}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Tag("benchmark")
+class JmhBenchmarkTest {
+
+  @Test
+  void testRunBenchmarks() throws Exception {
+    Options options = new OptionsBuilder()
+        .include(System.getProperty("jmh.include", JmhBenchmarkTest.class.getPackageName() + "\\..*Benchmark"))
+        .addProfiler(GCProfiler.class)
+        .forks(1)
+        .warmupIterations(3)
+        .measurementIterations(5)
+        .resultFormat(ResultFormatType.JSON)
+        .result("target/jmh-result.json")
+        .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,125 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookImportResultDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import de.cimtag.rateyourbooks.service.BookService;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link BookService} answering every lookup with fixed books, used to benchmark the BookController without a database.
+ *
+ * @author Niklas Witzel
+ */
+class StubBookService implements BookService {
+
+  private final BookDto book;
+  private final List<BookDto> books;
+
+  StubBookService(int size) {
+    this.book = BookTestData.bookDto(1L);
+    this.books = BookTestData.bookDtos(size);
+  }
+
+  @Override
+  public BookDto findBookById(Long id) {
+    return book;
+  }
+
+  @Override
+  public BookDto findBookByTitle(String title) {
+    return book;
+  }
+
+  @Override
+  public BookDto findBookByTitleAndAuthor(String title, String author) {
+    return book;
+  }
+
+  @Override
+  public List<BookDto> findAllBooksByAuthor(String author) {
+    return books;
+  }
+
+  @Override
+  public List<BookDto> findAllBooks() {
+    return books;
+  }
+
+  @Override
+  public List<BookDto> searchBooksByTitle(String term, MatchMode matchMode, int limit) {
+    return books;
+  }
+
+  @Override
+  public List<BookDto> searchBooksByAuthor(String term, MatchMode matchMode, int limit) {
+    return books;
+  }
+
+  @Override
+  public BookPageDto findBooksPage(Long after, int limit) {
+    return BookPageDto.builder()
+        .books(books)
+        .build();
+  }
+
+  @Override
+  public void streamAllBooks(Consumer<BookDto> consumer) {
+    books.forEach(consumer);
+  }
+
+  @Override
+  public BookDto createBook(BookDto bookDto) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<BookDto> createBooks(List<BookDto> bookDtos) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteBook(Long id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteBooks(List<Long> ids) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BookDto updateBook(Long id, BookDto updatedBookDto) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BookDto updateBook(Long id, BookDto updatedBookDto, Long expectedVersion) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BookDto patchBook(Long id, BookDto patchBookDto, Long expectedVersion) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<BookDto> updateBooks(List<BookDto> updatedBookDtos) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BookImportResultDto importBooks(InputStream input, BulkFormat format, boolean merge) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long exportBooks(OutputStream output, BulkFormat format) {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,179 @@
+package de.cimtag.rateyourbooks.benchmark;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import de.cimtag.rateyourbooks.RateYourBooksApplication;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Benchmark comparing request handling on platform threads with request handling on virtual threads.
+ * <p>
+ * The application is started once per mode, the virtual thread mode with the {@code virtual-threads} profile. Every statement sent to the database is
+ * delayed by {@value #DATABASE_LATENCY_MILLIS} ms to simulate a slow database, the book cache is disabled so each request reaches the database, and the
+ * admission control is disabled so no request is shed. The benchmark then fires {@value #REQUESTS} requests with {@value #CONCURRENCY} concurrent clients
+ * and reports throughput and latency percentiles.
+ * </p>
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=VirtualThreadBenchmarkTest}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Tag("benchmark")
+@Slf4j
+class VirtualThreadBenchmarkTest {
+
+  private static final int REQUESTS = 20_000;
+  private static final int CONCURRENCY = 1_000;
+  private static final long DATABASE_LATENCY_MILLIS = 20;
+  private static final Pattern ID_PATTERN = Pattern.compile("\"id\":(\\d+)");
+
+  @Test
+  void testCompareThreadModels() throws Exception {
+    BenchmarkResult platformThreads = run(false);
+    BenchmarkResult virtualThreads = run(true);
+
+    log.info("Mode            | Requests/s | p50 (ms) | p99 (ms) | max (ms) | Failures");
+    log.info(platformThreads.format("platform"));
+    log.info(virtualThreads.format("virtual"));
+
+    assertThat(platformThreads.completed() + platformThreads.failures(), is(REQUESTS));
+    assertThat(virtualThreads.completed() + virtualThreads.failures(), is(REQUESTS));
+  }
+
+  private BenchmarkResult run(boolean virtualThreads) throws Exception {
+    SpringApplicationBuilder builder = new SpringApplicationBuilder(RateYourBooksApplication.class, SlowDatabasePostProcessor.class)
+        .properties("server.port=0", "rateyourbooks.cache.enabled=false", "rateyourbooks.admission.enabled=false");
+    if (virtualThreads) {
+      builder.profiles("virtual-threads");
+    }
+
+    try (ConfigurableApplicationContext context = builder.run();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/books";
+      HttpClient httpClient = HttpClient.newBuilder().executor(executor).build();
+      long bookId = createBook(httpClient, baseUrl);
+
+      try {
+        return fireRequests(httpClient, executor, URI.create(baseUrl + "/" + bookId));
+      } finally {
+        httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + bookId)).DELETE().build(), BodyHandlers.discarding());
+      }
+    }
+  }
+
+  private BenchmarkResult fireRequests(HttpClient httpClient, ExecutorService executor, URI uri) throws InterruptedException {
+    long[] latencies = new long[REQUESTS];
+    AtomicInteger failures = new AtomicInteger();
+    Semaphore concurrency = new Semaphore(CONCURRENCY);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      int request = i;
+      concurrency.acquire();
+      executor.execute(() -> {
+        long requestStart = System.nanoTime();
+        try {
+          int status = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), BodyHandlers.discarding()).statusCode();
+          if (status != 200) {
+            failures.incrementAndGet();
+          }
+        } catch (Exception e) {
+          failures.incrementAndGet();
+        } finally {
+          latencies[request] = System.nanoTime() - requestStart;
+          concurrency.release();
+        }
+      });
+    }
+    concurrency.acquire(CONCURRENCY);
+    long elapsed = System.nanoTime() - start;
+
+    Arrays.sort(latencies);
+    return new BenchmarkResult(REQUESTS - failures.get(), failures.get(), REQUESTS * 1e9 / elapsed,
+        percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+  }
+
+  private static long createBook(HttpClient httpClient, String baseUrl) throws Exception {
+    String body = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString("{\"title\":\"Benchmark Book\", \"author\":\"Benchmark Author\"}"))
+        .build(), BodyHandlers.ofString()).body();
+
+    Matcher matcher = ID_PATTERN.matcher(body);
+    if (!matcher.find()) {
+      throw new IllegalStateException("Could not create benchmark book: " + body);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+
+  private static double percentileMillis(long[] sortedLatencies, double percentile) {
+    return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1] / 1e6;
+  }
+
+  private record BenchmarkResult(int completed, int failures, double throughput, double p50, double p99, double max) {
+
+    String format(String mode) {
+      return String.format("%-15s | %10.0f | %8.1f | %8.1f | %8.1f | %8d", mode, throughput, p50, p99, max, failures);
+    }
+  }
+
+  /**
+   * Delays every prepared statement to simulate a slow database while the connection is held.
+   */
+  static class SlowDatabasePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!(bean instanceof DataSource dataSource)) {
+        return bean;
+      }
+
+      return new DelegatingDataSource(dataSource) {
+        @Override
+        public Connection getConnection() throws SQLException {
+          return slowConnection(super.getConnection());
+        }
+      };
+    }
+
+    private static Connection slowConnection(Connection connection) {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+        if (method.getName().equals("prepareStatement")) {
+          Thread.sleep(DATABASE_LATENCY_MILLIS);
+        }
+        try {
+          return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package de.cimtag.rateyourbooks.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.cimtag.rateyourbooks.config.BookCacheProperties;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.service.BookServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for the CachingBookService class.
+ * <p>
+ * This class tests that lookups are served from the cache and that writes evict exactly the affected entries.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingBookServiceTest {
+
+  @Mock
+  private BookServiceImpl bookServiceImpl;
+
+  private MeterRegistry meterRegistry;
+
+  private CachingBookService cachingBookService;
+
+  private BookDto book;
+
+  @BeforeEach
+  void beforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+    BookCache bookCache = new BookCache(new BookCacheProperties(true, 100, Duration.ofMinutes(1)), meterRegistry);
+    cachingBookService = new CachingBookService(bookServiceImpl, bookCache);
+
+    book = BookDto.builder()
+        .id(1L)
+        .title("Test Title")
+        .author("Test Author")
+        .build();
+  }
+
+  @Test
+  void testFindBookByIdIsCached() {
+    when(bookServiceImpl.findBookById(1L)).thenReturn(book);
+
+    cachingBookService.findBookById(1L);
+    BookDto foundBook = cachingBookService.findBookById(1L);
+
+    assertThat(foundBook, is(book));
+    verify(bookServiceImpl, times(1)).findBookById(1L);
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "books.byId").tag("result", "hit").functionCounter().count(), is(1.0));
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "books.byId").tag("result", "miss").functionCounter().count(), is(1.0));
+  }
+
+  @Test
+  void testFindBookByIdDoesNotCacheMissingBook() {
+    when(bookServiceImpl.findBookById(1L)).thenThrow(new BookNotFoundException("Book with ID '1' not found!"));
+
+    assertThrows(BookNotFoundException.class, () -> cachingBookService.findBookById(1L));
+    assertThrows(BookNotFoundException.class, () -> cachingBookService.findBookById(1L));
+
+    verify(bookServiceImpl, times(2)).findBookById(1L);
+  }
+
+  @Test
+  void testUpdateBookEvictsPreviousTitleAndAuthor() {
+    BookDto updatedBook = BookDto.builder()
+        .id(1L)
+        .title("Updated Title")
+        .author("Updated Author")
+        .build();
+    when(bookServiceImpl.findBookById(1L)).thenReturn(book);
+    when(bookServiceImpl.findBookByTitle("Test Title")).thenReturn(book);
+    when(bookServiceImpl.findAllBooksByAuthor("Test Author")).thenReturn(List.of(book));
+    when(bookServiceImpl.updateBook(1L, updatedBook)).thenReturn(updatedBook);
+
+    cachingBookService.findBookById(1L);
+    cachingBookService.findBookByTitle("Test Title");
+    cachingBookService.findAllBooksByAuthor("Test Author");
+    cachingBookService.updateBook(1L, updatedBook);
+    cachingBookService.findBookById(1L);
+    cachingBookService.findBookByTitle("Test Title");
+    cachingBookService.findAllBooksByAuthor("Test Author");
+
+    verify(bookServiceImpl, times(2)).findBookById(1L);
+    verify(bookServiceImpl, times(2)).findBookByTitle("Test Title");
+    verify(bookServiceImpl, times(2)).findAllBooksByAuthor("Test Author");
+  }
+
+  @Test
+  void testUpdateDuringLoadDoesNotCacheStaleBook() throws Exception {
+    BookDto updatedBook = BookDto.builder()
+        .id(1L)
+        .title("Updated Title")
+        .author("Test Author")
+        .build();
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch updateDone = new CountDownLatch(1);
+    when(bookServiceImpl.findBookByTitle("Test Title")).thenAnswer(invocation -> {
+      loadStarted.countDown();
+      updateDone.await(5, TimeUnit.SECONDS);
+      return book;
+    });
+    when(bookServiceImpl.updateBook(1L, updatedBook)).thenReturn(updatedBook);
+
+    // The load reads the book before the update, but stores it only after the eviction has scanned the cache
+    CompletableFuture<BookDto> load = CompletableFuture.supplyAsync(() -> cachingBookService.findBookByTitle("Test Title"));
+    assertThat(loadStarted.await(5, TimeUnit.SECONDS), is(true));
+    cachingBookService.updateBook(1L, updatedBook);
+    updateDone.countDown();
+    load.get(5, TimeUnit.SECONDS);
+
+    cachingBookService.findBookByTitle("Test Title");
+
+    verify(bookServiceImpl, times(2)).findBookByTitle("Test Title");
+  }
+
+  @Test
+  void testCreateBookEvictsAuthorListing() {
+    BookDto newBook = BookDto.builder()
+        .title("Test Title 2")
+        .author("Test Author")
+        .build();
+    when(bookServiceImpl.findAllBooksByAuthor("Test Author")).thenReturn(List.of(book));
+    when(bookServiceImpl.createBook(newBook)).thenReturn(BookDto.builder().id(2L).title("Test Title 2").author("Test Author").build());
+
+    cachingBookService.findAllBooksByAuthor("Test Author");
+    cachingBookService.createBook(newBook);
+    cachingBookService.findAllBooksByAuthor("Test Author");
+
+    verify(bookServiceImpl, times(2)).findAllBooksByAuthor("Test Author");
+  }
+
+  @Test
+  void testDeleteBookEvictsBook() {
+    when(bookServiceImpl.findBookById(1L)).thenReturn(book);
+
+    cachingBookService.findBookById(1L);
+    cachingBookService.deleteBook(1L);
+    cachingBookService.findBookById(1L);
+
+    verify(bookServiceImpl, times(2)).findBookById(1L);
+  }
+}
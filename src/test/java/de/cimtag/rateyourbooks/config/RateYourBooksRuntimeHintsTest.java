@@ -0,0 +1,51 @@
+package de.cimtag.rateyourbooks.config;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.notification.BookChangeNotification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Unit tests for the RateYourBooksRuntimeHints.
+ *
+ * @author Niklas Witzel
+ */
+class RateYourBooksRuntimeHintsTest {
+
+  private RuntimeHints hints;
+
+  @BeforeEach
+  void setUp() {
+    hints = new RuntimeHints();
+    new RateYourBooksRuntimeHints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void testRegistersQueryConstructor() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(BookDto.class).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints),
+        is(true));
+  }
+
+  @Test
+  void testRegistersJsonBinding() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(BookChangeNotification.class).test(hints), is(true));
+  }
+
+  @Test
+  void testRegistersConnectionProxy() {
+    assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ConnectionProxy.class).test(hints), is(true));
+  }
+
+  @Test
+  void testRegistersCaffeineCacheClasses() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.github.benmanes.caffeine.cache.SSSMSW")).test(hints), is(true));
+  }
+}
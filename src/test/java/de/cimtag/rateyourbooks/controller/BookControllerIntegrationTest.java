@@ -1,15 +1,37 @@
 package de.cimtag.rateyourbooks.controller;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.rating.BookLeaderboard;
+import de.cimtag.rateyourbooks.rating.BookRatings;
+import de.cimtag.rateyourbooks.search.BookSearchIndex;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -17,9 +39,12 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Integration tests for the BookController.
@@ -35,9 +60,23 @@ import org.springframework.test.web.servlet.MockMvc;
 @TestMethodOrder(OrderAnnotation.class)
 class BookControllerIntegrationTest {
 
+  private static final long REBUILD_TIMEOUT_MILLIS = 5_000;
+
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private BookSearchIndex bookSearchIndex;
+
+  @BeforeAll
+  static void reloadInMemoryState(@Autowired BookSearchIndex bookSearchIndex, @Autowired BookRatings bookRatings,
+      @Autowired BookLeaderboard bookLeaderboard) {
+    // The search index, the ratings and the leaderboard are loaded when the context starts, before the test data is inserted
+    bookSearchIndex.build();
+    bookRatings.load();
+    bookLeaderboard.rebuild();
+  }
+
   @Test
   @Order(1)
   void testSearchAllBooks() throws Exception {
@@ -121,6 +160,142 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$[0].author", is("Rutger Bregman")));
   }
 
+  @Test
+  @Order(1)
+  void testLookupBooksByTitlePrefixIgnoringCaseAndUmlauts() throws Exception {
+    mockMvc.perform(get("/api/books/lookup").param("title", "UTOPIEN FUER").param("match", "PREFIX"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title", is("Utopien für Realisten")));
+  }
+
+  @Test
+  @Order(1)
+  void testLookupBooksByAuthorSubstring() throws Exception {
+    mockMvc.perform(get("/api/books/lookup").param("author", "bregman"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].author", is("Rutger Bregman")))
+        .andExpect(jsonPath("$[1].author", is("Rutger Bregman")));
+  }
+
+  @Test
+  @Order(1)
+  void testFindBooksPage() throws Exception {
+    mockMvc.perform(get("/api/books").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books", hasSize(2)))
+        .andExpect(jsonPath("$.books[0].id", is(1)))
+        .andExpect(jsonPath("$.books[1].id", is(2)))
+        .andExpect(jsonPath("$.nextCursor", is(2)));
+  }
+
+  @Test
+  @Order(1)
+  void testFindBooksPageAfterCursor() throws Exception {
+    mockMvc.perform(get("/api/books").param("limit", "2").param("after", "4"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books", hasSize(1)))
+        .andExpect(jsonPath("$.books[0].id", is(5)))
+        .andExpect(jsonPath("$.nextCursor", is(nullValue())));
+  }
+
+  @Test
+  @Order(1)
+  void testFindBooksPageWithFilter() throws Exception {
+    mockMvc.perform(get("/api/books").param("author", "Rutger Bregman").param("limit", "10"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/books").param("title", "Im Grunde gut").param("limit", "10"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Order(1)
+  void testStreamAllBooks() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/books/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(startsWith("{\"id\":1,\"title\":\"Fourth Wing\"")));
+  }
+
+  @Test
+  @Order(1)
+  void testSearchBooksAsCbor() throws Exception {
+    byte[] cbor = mockMvc.perform(get("/api/books").param("author", "Rutger Bregman").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<BookDto> bookDtos = Jackson2ObjectMapperBuilder.cbor().build().readValue(cbor, new TypeReference<>() {
+    });
+    assertThat(bookDtos, hasSize(2));
+    assertThat(bookDtos.getFirst().author(), is("Rutger Bregman"));
+
+    // Encoded with the same Jackson configuration as JSON, so timestamps are ISO strings in both formats
+    String json = mockMvc.perform(get("/api/books").param("author", "Rutger Bregman").accept(MediaType.APPLICATION_JSON))
+        .andReturn().getResponse().getContentAsString();
+    JsonNode cborLastModified = Jackson2ObjectMapperBuilder.cbor().build().readTree(cbor).get(0).get("lastModified");
+    assertThat(cborLastModified.isTextual(), is(true));
+    assertThat(cborLastModified.asText(), is(Jackson2ObjectMapperBuilder.json().build().readTree(json).get(0).get("lastModified").asText()));
+  }
+
+  @Test
+  @Order(1)
+  void testSearchBooksDefaultsToJson() throws Exception {
+    mockMvc.perform(get("/api/books").param("author", "Rutger Bregman").accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  @Order(1)
+  void testExportBooksAsCsv() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/books/export").param("format", "CSV"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/csv"))
+        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\""))
+        .andExpect(content().string(startsWith("id,title,author,version,last_modified\n1,\"Fourth Wing\",\"Rebecca Yarros\",0,")));
+  }
+
+  @Test
+  @Order(1)
+  void testExportBooksAsGzipNdjson() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/books/export").param("gzip", "true"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    byte[] compressed = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/gzip"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      String export = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+      assertThat(export, startsWith("{\"id\":1,\"title\":\"Fourth Wing\""));
+      assertThat(export.lines().count(), is(5L));
+    }
+  }
+
+  @Test
+  @Order(1)
+  void testSearchBooksRecordsResultSize() throws Exception {
+    mockMvc.perform(get("/api/books").param("author", "Rutger Bregman"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/metrics/books.results").param("tag", "query:author"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name", is("books.results")))
+        .andExpect(jsonPath("$.baseUnit", is("books")));
+  }
+
   @Test
   @Order(1)
   void testFindBookById() throws Exception {
@@ -130,6 +305,69 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.author", is("Rebecca Yarros")));
   }
 
+  @Test
+  @Order(1)
+  void testFullTextSearch() throws Exception {
+    mockMvc.perform(get("/api/books/search").param("q", "harari GESCHICHTE"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].book.id", is(4)))
+        .andExpect(jsonPath("$[0].book.title", is("Eine kurze Geschichte der Menschheit")));
+
+    mockMvc.perform(get("/api/books/search").param("q", "utopien fuer realisten"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].book.id", is(3)));
+  }
+
+  @Test
+  @Order(1)
+  void testFindBookByIdNotModified() throws Exception {
+    String eTag = mockMvc.perform(get("/api/books/{id}", 1L))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-0\""))
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/books/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  @Order(1)
+  void testFindBookByIdVariesByFormat() throws Exception {
+    String jsonETag = mockMvc.perform(get("/api/books/{id}", 1L).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    String cborETag = mockMvc.perform(get("/api/books/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    assertThat(cborETag, not(jsonETag));
+    // The ETag of the JSON representation does not validate the CBOR one
+    mockMvc.perform(get("/api/books/{id}", 1L).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/books/{id}", 1L).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+  }
+
+  @Test
+  @Order(1)
+  void testSearchBooksByAuthorNotModified() throws Exception {
+    String eTag = mockMvc.perform(get("/api/books").param("author", "Rutger Bregman"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/books").param("author", "Rutger Bregman").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+  }
+
   @Test
   @Order(2)
   void testCreateNewBook() throws Exception {
@@ -142,6 +380,25 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.author", is("Ethan Mollick")));
   }
 
+  @Test
+  @Order(2)
+  void testCreateNewBookWithId() throws Exception {
+    mockMvc.perform(post("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"id\":1, \"title\":\"Fourth Wing\", \"author\":\"Rebecca Yarros\"}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Order(3)
+  void testCreateExistingBook() throws Exception {
+    mockMvc.perform(post("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"co-intelligence\", \"author\":\"ETHAN MOLLICK\"}"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.title", is("BOOK_ALREADY_EXISTS")));
+  }
+
   @Test
   @Order(3)
   void testUpdateBook() throws Exception {
@@ -154,6 +411,129 @@ class BookControllerIntegrationTest {
   }
 
 
+  @Test
+  @Order(3)
+  void testUpdateBookWithIfMatch() throws Exception {
+    String eTag = mockMvc.perform(get("/api/books/{id}", 5L))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(put("/api/books/{id}", 5L)
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Updated Baustellen\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+        .andExpect(jsonPath("$.version", is(1)));
+
+    mockMvc.perform(put("/api/books/{id}", 5L)
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Lost Update\"}"))
+        .andExpect(status().isPreconditionFailed());
+
+    mockMvc.perform(get("/api/books/{id}", 5L).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", is("Updated Baustellen")));
+  }
+
+  @Test
+  @Order(3)
+  void testFullTextSearchFindsCreatedBook() throws Exception {
+    mockMvc.perform(get("/api/books/search").param("q", "Co-Intelligence"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].book.id", is(6)));
+  }
+
+  @Test
+  @Order(3)
+  void testRateBook() throws Exception {
+    String eTag = mockMvc.perform(get("/api/books/{id}", 2L))
+        .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(post("/api/books/{id}/ratings", 2L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"score\":4}"))
+        .andExpect(status().isAccepted());
+    mockMvc.perform(post("/api/books/{id}/ratings", 2L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"score\":5}"))
+        .andExpect(status().isAccepted());
+
+    // The body has changed, so the ETag may only be the same because it is weak
+    mockMvc.perform(get("/api/books/{id}", 2L))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, allOf(startsWith("W/"), is(eTag))))
+        .andExpect(jsonPath("$.ratingCount", is(2)))
+        .andExpect(jsonPath("$.averageRating", is(4.5)));
+  }
+
+  @Test
+  @Order(3)
+  void testRateBookWithInvalidScore() throws Exception {
+    mockMvc.perform(post("/api/books/{id}/ratings", 2L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"score\":6}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Order(3)
+  void testRateNonExistingBook() throws Exception {
+    mockMvc.perform(post("/api/books/{id}/ratings", 999L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"score\":3}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @Order(3)
+  void testPatchBook() throws Exception {
+    mockMvc.perform(patch("/api/books/{id}", 4L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"author\":\"Yuval N. Harari\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"4-1\""))
+        .andExpect(jsonPath("$.title", is("Eine kurze Geschichte der Menschheit")))
+        .andExpect(jsonPath("$.author", is("Yuval N. Harari")))
+        .andExpect(jsonPath("$.version", is(1)));
+
+    mockMvc.perform(patch("/api/books/{id}", 4L)
+            .header(HttpHeaders.IF_MATCH, "\"4-0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"author\":\"Lost Update\"}"))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  @Order(3)
+  void testPatchNonExistingBook() throws Exception {
+    mockMvc.perform(patch("/api/books/{id}", 999L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Updated Title\"}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @Order(4)
+  void testLeaderboard() throws Exception {
+    mockMvc.perform(get("/api/leaderboard").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].rank", is(1)))
+        .andExpect(jsonPath("$[0].book.id", is(2)))
+        .andExpect(jsonPath("$[0].book.averageRating", is(4.5)));
+
+    mockMvc.perform(get("/api/leaderboard/books/{id}", 2L))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rank", is(1)));
+
+    mockMvc.perform(get("/api/leaderboard/books/{id}", 3L))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   @Order(4)
   void testDeleteBook() throws Exception {
@@ -163,4 +543,140 @@ class BookControllerIntegrationTest {
     mockMvc.perform(get("/api/books/{id}", 1L))
         .andExpect(status().isNotFound());
   }
+
+  @Test
+  @Order(4)
+  void testDeleteNonExistingBook() throws Exception {
+    mockMvc.perform(delete("/api/books/{id}", 999L))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @Order(5)
+  void testCreateNewBooks() throws Exception {
+    mockMvc.perform(post("/api/books/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"title\":\"Batch Book 1\", \"author\":\"Batch Author\"}, {\"title\":\"Batch Book 2\", \"author\":\"Batch Author\"}]"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title", is("Batch Book 1")))
+        .andExpect(jsonPath("$[1].title", is("Batch Book 2")));
+
+    mockMvc.perform(get("/api/books").param("author", "Batch Author"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)));
+  }
+
+  @Test
+  @Order(5)
+  void testImportBooks() throws Exception {
+    mockMvc.perform(post("/api/books/import")
+            .contentType("text/csv")
+            .content("""
+                title,author
+                "Import Book 1","Import Author"
+                Import Book 2,Import Author
+                Import Book 3
+                """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported", is(2)))
+        .andExpect(jsonPath("$.skipped", is(0)))
+        .andExpect(jsonPath("$.rejected", is(1)))
+        .andExpect(jsonPath("$.rejects[0].line", is(4)));
+
+    mockMvc.perform(get("/api/books").param("author", "Import Author"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)));
+
+    mockMvc.perform(post("/api/books/import")
+            .param("merge", "true")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content("""
+                {"title":"Import Book 2","author":"Import Author"}
+                {"title":"Import Book 3","author":"Import Author"}
+                {"title":"Import Book 3","author":"Import Author"}
+                """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported", is(1)))
+        .andExpect(jsonPath("$.skipped", is(2)))
+        .andExpect(jsonPath("$.rejected", is(0)));
+
+    // Merging again is idempotent, even if title and author only differ in case
+    mockMvc.perform(post("/api/books/import")
+            .param("merge", "true")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content("""
+                {"title":"import book 3","author":"IMPORT AUTHOR"}
+                """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported", is(0)))
+        .andExpect(jsonPath("$.skipped", is(1)));
+
+    mockMvc.perform(post("/api/books/import")
+            .contentType("text/csv")
+            .content("Import Book 1,Import Author"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.title", is("BOOK_ALREADY_EXISTS")));
+
+    mockMvc.perform(get("/api/books").param("author", "Import Author"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(3)));
+
+    // The search index is rebuilt in the background after an import
+    awaitIndexed("Import Book 3");
+    mockMvc.perform(get("/api/books/search").param("q", "import book 3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].book.title", is("Import Book 3")));
+  }
+
+  @Test
+  @Order(6)
+  void testUpdateBooks() throws Exception {
+    mockMvc.perform(put("/api/books/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"id\":2, \"title\":\"Updated Book 2\"}, {\"id\":3, \"author\":\"Updated Author 3\"}]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title", is("Updated Book 2")))
+        .andExpect(jsonPath("$[0].author", is("Rutger Bregman")))
+        .andExpect(jsonPath("$[1].title", is("Utopien für Realisten")))
+        .andExpect(jsonPath("$[1].author", is("Updated Author 3")));
+  }
+
+  @Test
+  @Order(6)
+  void testUpdateBooksWithMissingBook() throws Exception {
+    mockMvc.perform(put("/api/books/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"id\":4, \"title\":\"Updated Book 4\"}, {\"id\":999, \"title\":\"Updated Book 999\"}]"))
+        .andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/api/books/{id}", 4L))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", is("Eine kurze Geschichte der Menschheit")));
+  }
+
+  @Test
+  @Order(7)
+  void testDeleteBooks() throws Exception {
+    mockMvc.perform(delete("/api/books/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"id\":2}, {\"id\":3}]"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/books/{id}", 2L))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/books/{id}", 3L))
+        .andExpect(status().isNotFound());
+  }
+
+  private void awaitIndexed(String title) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + REBUILD_TIMEOUT_MILLIS;
+    while (bookSearchIndex.search(title, 10).stream().noneMatch(hit -> hit.book().title().equals(title))) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Book '" + title + "' not indexed within " + REBUILD_TIMEOUT_MILLIS + " ms");
+      }
+      Thread.sleep(50);
+    }
+  }
 }
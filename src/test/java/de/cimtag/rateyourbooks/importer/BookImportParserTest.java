@@ -0,0 +1,79 @@
+package de.cimtag.rateyourbooks.importer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BulkFormat;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the BookImportParser class.
+ *
+ * @author Niklas Witzel
+ */
+class BookImportParserTest {
+
+  private final BookImportParser csvParser = new BookImportParser(BulkFormat.CSV, new ObjectMapper());
+  private final BookImportParser jsonParser = new BookImportParser(BulkFormat.NDJSON, new ObjectMapper());
+
+  @Test
+  void testParseCsv() {
+    BookDto bookDto = csvParser.parse("Fourth Wing, Rebecca Yarros");
+
+    assertThat(bookDto.title(), is("Fourth Wing"));
+    assertThat(bookDto.author(), is("Rebecca Yarros"));
+  }
+
+  @Test
+  void testParseQuotedCsv() {
+    BookDto bookDto = csvParser.parse("\"Sapiens, \"\"A Brief History\"\"\",\"Yuval Noah Harari\"");
+
+    assertThat(bookDto.title(), is("Sapiens, \"A Brief History\""));
+    assertThat(bookDto.author(), is("Yuval Noah Harari"));
+  }
+
+  @Test
+  void testRejectOverlongLine() {
+    String line = "\"" + "a".repeat(BookImportParser.MAX_LINE_LENGTH) + "\",Author";
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> csvParser.parse(line));
+    assertThat(e.getMessage(), is("The line is longer than " + BookImportParser.MAX_LINE_LENGTH + " characters"));
+  }
+
+  @Test
+  void testRejectInvalidCsv() {
+    assertThrows(IllegalArgumentException.class, () -> csvParser.parse("Only a title"));
+    assertThrows(IllegalArgumentException.class, () -> csvParser.parse("Title,Author,Extra"));
+    assertThrows(IllegalArgumentException.class, () -> csvParser.parse("\"Unterminated,Author"));
+    assertThrows(IllegalArgumentException.class, () -> csvParser.parse("Title, "));
+    assertThrows(IllegalArgumentException.class, () -> csvParser.parse("x".repeat(BookImportParser.MAX_LENGTH + 1) + ",Author"));
+  }
+
+  @Test
+  void testCsvHeader() {
+    assertThat(csvParser.isHeader("title,author"), is(true));
+    assertThat(csvParser.isHeader("\"Title\", \"Author\""), is(true));
+    assertThat(csvParser.isHeader("Fourth Wing,Rebecca Yarros"), is(false));
+    assertThat(jsonParser.isHeader("title,author"), is(false));
+  }
+
+  @Test
+  void testParseJson() {
+    BookDto bookDto = jsonParser.parse("{\"title\":\"Fourth Wing\",\"author\":\"Rebecca Yarros\",\"id\":42}");
+
+    assertThat(bookDto.title(), is("Fourth Wing"));
+    assertThat(bookDto.author(), is("Rebecca Yarros"));
+    assertThat(bookDto.id() == null, is(true));
+  }
+
+  @Test
+  void testRejectInvalidJson() {
+    assertThrows(IllegalArgumentException.class, () -> jsonParser.parse("{\"title\":\"Fourth Wing\""));
+    assertThrows(IllegalArgumentException.class, () -> jsonParser.parse("[\"Fourth Wing\",\"Rebecca Yarros\"]"));
+    assertThrows(IllegalArgumentException.class, () -> jsonParser.parse("{\"title\":\"Fourth Wing\"}"));
+    assertThrows(IllegalArgumentException.class, () -> jsonParser.parse("{\"title\":\"Fourth Wing\",\"author\":42}"));
+  }
+}
@@ -0,0 +1,74 @@
+package de.cimtag.rateyourbooks.importer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the BoundedLineReader class.
+ *
+ * @author Niklas Witzel
+ */
+class BoundedLineReaderTest {
+
+  @Test
+  void testReadLinesWithAllTerminators() throws IOException {
+    BoundedLineReader reader = new BoundedLineReader(new StringReader("first\nsecond\r\nthird\rfourth"), 10);
+
+    assertThat(reader.readLine(), is("first"));
+    assertThat(reader.readLine(), is("second"));
+    assertThat(reader.readLine(), is("third"));
+    assertThat(reader.readLine(), is("fourth"));
+    assertThat(reader.readLine(), is(nullValue()));
+  }
+
+  @Test
+  void testReadEmptyLines() throws IOException {
+    BoundedLineReader reader = new BoundedLineReader(new StringReader("\n\r\nlast\n"), 10);
+
+    assertThat(reader.readLine(), is(""));
+    assertThat(reader.readLine(), is(""));
+    assertThat(reader.readLine(), is("last"));
+    assertThat(reader.readLine(), is(nullValue()));
+  }
+
+  @Test
+  void testCutOverlongLineAndSkipRest() throws IOException {
+    BoundedLineReader reader = new BoundedLineReader(new StringReader("a".repeat(20_000) + "\nnext"), 10);
+
+    assertThat(reader.readLine(), is("a".repeat(11)));
+    assertThat(reader.readLine(), is("next"));
+    assertThat(reader.readLine(), is(nullValue()));
+  }
+
+  @Test
+  void testBoundedWithoutLineTerminator() throws IOException {
+    // Endless input without a line terminator, which would exhaust the memory if buffered completely
+    Reader endless = new Reader() {
+      private long remaining = 100_000_000;
+
+      @Override
+      public int read(char[] buffer, int offset, int length) {
+        if (remaining == 0) {
+          return -1;
+        }
+        int count = (int) Math.min(length, remaining);
+        Arrays.fill(buffer, offset, offset + count, 'x');
+        remaining -= count;
+        return count;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    assertThat(new BoundedLineReader(endless, 10).readLine().length(), is(11));
+  }
+}
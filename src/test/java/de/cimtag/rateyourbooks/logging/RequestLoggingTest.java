@@ -0,0 +1,42 @@
+package de.cimtag.rateyourbooks.logging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import de.cimtag.rateyourbooks.config.LoggingProperties;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the RequestLogging class.
+ *
+ * @author Niklas Witzel
+ */
+class RequestLoggingTest {
+
+  private final RequestLogging requestLogging = new RequestLogging(new LoggingProperties(
+      new LoggingProperties.Async(false, 8192, 0, true), 10, 3, 1.0, Map.of("findBookById", 0.0)));
+
+  @Test
+  void testSummarize() {
+    List<BookDto> books = LongStream.rangeClosed(1, 5).mapToObj(id -> BookDto.builder().id(id).build()).toList();
+
+    assertThat(requestLogging.summarize(books), is("5 books [1, 2, 3, ...]"));
+    assertThat(requestLogging.summarize(books.subList(0, 2)), is("2 books [1, 2]"));
+  }
+
+  @Test
+  void testAbbreviate() {
+    assertThat(requestLogging.abbreviate("short"), is("short"));
+    assertThat(requestLogging.abbreviate("a payload longer than ten"), is("a payload ... (25 chars)"));
+  }
+
+  @Test
+  void testIsSampled() {
+    assertThat(requestLogging.isSampled("searchBooks"), is(true));
+    assertThat(requestLogging.isSampled("findBookById"), is(false));
+  }
+}
@@ -0,0 +1,112 @@
+package de.cimtag.rateyourbooks.notification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.search.BookSearchIndex;
+import de.cimtag.rateyourbooks.service.BookService;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Integration tests for the change notifications between instances of the application.
+ * <p>
+ * Another instance is simulated by changing the {@code books} table behind the application's back and sending the notification that instance would send.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@SpringBootTest
+class BookChangeNotificationIntegrationTest {
+
+  private static final long TIMEOUT_MILLIS = 5_000;
+
+  @Autowired
+  private BookService bookService;
+
+  @Autowired
+  private BookSearchIndex bookSearchIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private DataSourceProperties dataSourceProperties;
+
+  @Test
+  void testNotifiesOtherInstancesOnCommit() throws Exception {
+    try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+        dataSourceProperties.determinePassword())) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("LISTEN " + BookChangeNotifier.CHANNEL);
+      }
+
+      BookDto createdBook = bookService.createBook(BookDto.builder().title("Notified Book").author("Notified Author").build());
+      bookService.deleteBook(createdBook.id());
+
+      List<BookChangeNotification> notifications = new ArrayList<>();
+      long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+      while (notifications.size() < 2 && System.currentTimeMillis() < deadline) {
+        PGNotification[] received = connection.unwrap(PGConnection.class).getNotifications(100);
+        for (PGNotification notification : received == null ? new PGNotification[0] : received) {
+          notifications.add(objectMapper.readValue(notification.getParameter(), BookChangeNotification.class));
+        }
+      }
+
+      assertThat(notifications, hasSize(2));
+      assertThat(notifications.get(0).savedIds(), is(List.of(createdBook.id())));
+      assertThat(notifications.get(1).deletedIds(), is(List.of(createdBook.id())));
+    }
+  }
+
+  @Test
+  void testAppliesChangesOfOtherInstances() throws Exception {
+    BookDto createdBook = bookService.createBook(BookDto.builder().title("Coherent Book").author("Coherent Author").build());
+    try {
+      assertThat(bookService.findBookById(createdBook.id()).title(), is("Coherent Book"));
+
+      jdbcTemplate.update("UPDATE books SET title = 'Incoherent Book', version = version + 1 WHERE id = ?", createdBook.id());
+      assertThat(bookService.findBookById(createdBook.id()).title(), is("Coherent Book"));
+
+      notifyAsOtherInstance(new BookChangeNotification("other-instance", List.of(createdBook.id()), List.of(), false));
+
+      awaitTrue(() -> bookService.findBookById(createdBook.id()).title().equals("Incoherent Book"));
+      awaitTrue(() -> bookSearchIndex.search("Incoherent", 10).stream().anyMatch(hit -> hit.book().id().equals(createdBook.id())));
+    } finally {
+      bookService.deleteBook(createdBook.id());
+    }
+  }
+
+  private void notifyAsOtherInstance(BookChangeNotification notification) throws Exception {
+    jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) resultSet -> {
+    }, BookChangeNotifier.CHANNEL, objectMapper.writeValueAsString(notification));
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Condition not met within " + TIMEOUT_MILLIS + " ms");
+      }
+      Thread.sleep(50);
+    }
+  }
+}
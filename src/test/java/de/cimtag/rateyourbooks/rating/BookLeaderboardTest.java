@@ -0,0 +1,108 @@
+package de.cimtag.rateyourbooks.rating;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.model.BookRatingStats;
+import de.cimtag.rateyourbooks.rating.BookLeaderboard.RankedBook;
+import de.cimtag.rateyourbooks.repository.BookRatingStatsRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for the BookLeaderboard class.
+ *
+ * @author Niklas Witzel
+ */
+@ExtendWith(MockitoExtension.class)
+class BookLeaderboardTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private BookRatingStatsRepository bookRatingStatsRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private BookRatings bookRatings;
+  private BookLeaderboard bookLeaderboard;
+
+  @BeforeEach
+  void beforeEach() {
+    bookRatings = new BookRatings(jdbcTemplate, bookRatingStatsRepository, new TransactionTemplate(transactionManager));
+    bookLeaderboard = new BookLeaderboard(bookRatings);
+  }
+
+  @Test
+  void testRebuildFromLoadedRatings() {
+    when(bookRatingStatsRepository.findAll()).thenReturn(List.of(
+        BookRatingStats.builder().bookId(1L).ratingCount(2L).ratingSum(6L).build(),
+        BookRatingStats.builder().bookId(2L).ratingCount(4L).ratingSum(18L).build()
+    ));
+    bookRatings.load();
+
+    bookLeaderboard.rebuild();
+
+    assertThat(topBookIds(10), contains(2L, 1L));
+  }
+
+  @Test
+  void testTopRanksByAverageThenCount() {
+    bookRatings.rate(1L, 4);
+    bookRatings.rate(2L, 5);
+    bookRatings.rate(3L, 4);
+    bookRatings.rate(3L, 4);
+
+    assertThat(topBookIds(10), contains(2L, 3L, 1L));
+    assertThat(topBookIds(2), contains(2L, 3L));
+  }
+
+  @Test
+  void testRankIsUpdatedByNewRatings() {
+    bookRatings.rate(1L, 3);
+    bookRatings.rate(2L, 4);
+    assertThat(bookLeaderboard.rank(1L).map(RankedBook::rank), is(Optional.of(2)));
+
+    bookRatings.rate(1L, 5);
+    bookRatings.rate(1L, 5);
+
+    assertThat(bookLeaderboard.rank(1L).map(RankedBook::rank), is(Optional.of(1)));
+    assertThat(bookLeaderboard.rank(1L).orElseThrow().ranking().ratingCount(), is(3L));
+  }
+
+  @Test
+  void testUnratedBookHasNoRank() {
+    assertThat(bookLeaderboard.rank(1L), is(Optional.empty()));
+  }
+
+  @Test
+  void testDeletedBookIsRemoved() {
+    bookRatings.rate(1L, 5);
+    bookRatings.rate(2L, 4);
+    assertThat(topBookIds(10), contains(1L, 2L));
+
+    BooksChangedEvent event = BooksChangedEvent.deleted(List.of(1L));
+    bookRatings.onBooksChanged(event);
+    bookLeaderboard.onBooksChanged(event);
+
+    assertThat(topBookIds(10), contains(2L));
+    assertThat(bookLeaderboard.rank(1L), is(Optional.empty()));
+  }
+
+  private List<Long> topBookIds(int limit) {
+    return bookLeaderboard.top(limit).stream().map(rankedBook -> rankedBook.ranking().bookId()).toList();
+  }
+}
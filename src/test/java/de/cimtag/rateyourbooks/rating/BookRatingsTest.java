@@ -0,0 +1,156 @@
+package de.cimtag.rateyourbooks.rating;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.model.BookRatingStats;
+import de.cimtag.rateyourbooks.repository.BookRatingStatsRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for the BookRatings class.
+ *
+ * @author Niklas Witzel
+ */
+@ExtendWith(MockitoExtension.class)
+class BookRatingsTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private BookRatingStatsRepository bookRatingStatsRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Captor
+  private ArgumentCaptor<List<Object[]>> batchArgumentCaptor;
+
+  private BookRatings bookRatings;
+
+  @BeforeEach
+  void beforeEach() {
+    bookRatings = new BookRatings(jdbcTemplate, bookRatingStatsRepository, new TransactionTemplate(transactionManager));
+  }
+
+  @Test
+  void testRateBook() {
+    bookRatings.rate(1L, 4);
+    bookRatings.rate(1L, 5);
+
+    BookDto bookDto = bookRatings.withRatings(BookDto.builder().id(1L).build());
+
+    assertThat(bookDto.ratingCount(), is(2L));
+    assertThat(bookDto.averageRating(), is(4.5));
+  }
+
+  @Test
+  void testUnratedBook() {
+    BookDto bookDto = bookRatings.withRatings(BookDto.builder().id(1L).build());
+
+    assertThat(bookDto.ratingCount(), is(0L));
+    assertThat(bookDto.averageRating(), is(nullValue()));
+  }
+
+  @Test
+  void testRateBookWithInvalidScore() {
+    assertThrows(IllegalArgumentException.class, () -> bookRatings.rate(1L, 0));
+    assertThrows(IllegalArgumentException.class, () -> bookRatings.rate(1L, 6));
+  }
+
+  @Test
+  void testLoadAddsUpWithNewRatings() {
+    when(bookRatingStatsRepository.findAll()).thenReturn(List.of(new BookRatingStats(1L, 10, 30)));
+
+    bookRatings.load();
+    bookRatings.rate(1L, 5);
+
+    assertThat(bookRatings.stats(1L).count(), is(11L));
+    assertThat(bookRatings.stats(1L).sum(), is(35L));
+  }
+
+  @Test
+  void testFlushWritesOnlyNewRatings() {
+    when(bookRatingStatsRepository.findAll()).thenReturn(List.of(new BookRatingStats(1L, 10, 30)));
+    bookRatings.load();
+    bookRatings.rate(1L, 5);
+    bookRatings.rate(1L, 3);
+
+    bookRatings.flush();
+    bookRatings.flush();
+
+    verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batchArgumentCaptor.capture());
+    Object[] row = batchArgumentCaptor.getValue().getFirst();
+    assertThat(row[0], is(1L));
+    assertThat(row[1], is(2L));
+    assertThat(row[2], is(8L));
+  }
+
+  @Test
+  void testFlushWritesOnlyRatedBooks() {
+    when(bookRatingStatsRepository.findAll()).thenReturn(List.of(new BookRatingStats(1L, 10, 30), new BookRatingStats(2L, 5, 20)));
+    bookRatings.load();
+    bookRatings.rate(2L, 4);
+
+    bookRatings.flush();
+
+    verify(jdbcTemplate).batchUpdate(anyString(), batchArgumentCaptor.capture());
+    assertThat(batchArgumentCaptor.getValue(), hasSize(1));
+    assertThat(batchArgumentCaptor.getValue().getFirst()[0], is(2L));
+  }
+
+  @Test
+  void testFailedFlushIsRetried() {
+    when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+        .thenReturn(new int[]{1});
+    bookRatings.rate(1L, 4);
+
+    assertThrows(DataAccessResourceFailureException.class, () -> bookRatings.flush());
+    bookRatings.flush();
+
+    verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batchArgumentCaptor.capture());
+    Object[] row = batchArgumentCaptor.getValue().getFirst();
+    assertThat(row[1], is(1L));
+    assertThat(row[2], is(4L));
+  }
+
+  @Test
+  void testFlushWithoutNewRatings() {
+    bookRatings.flush();
+
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void testDeletedBookLosesRatings() {
+    bookRatings.rate(1L, 5);
+
+    bookRatings.onBooksChanged(BooksChangedEvent.deleted(List.of(1L)));
+
+    assertThat(bookRatings.stats(1L).count(), is(0L));
+  }
+}
@@ -0,0 +1,85 @@
+package de.cimtag.rateyourbooks.rating;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the OrderStatisticTreap class.
+ *
+ * @author Niklas Witzel
+ */
+class OrderStatisticTreapTest {
+
+  @Test
+  void testInsertAndRank() {
+    OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>(Comparator.naturalOrder());
+    treap.insert(30);
+    treap.insert(10);
+    treap.insert(20);
+
+    assertThat(treap.size(), is(3));
+    assertThat(treap.rank(10), is(0));
+    assertThat(treap.rank(20), is(1));
+    assertThat(treap.rank(30), is(2));
+    assertThat(treap.rank(15), is(-1));
+    assertThat(treap.first(2), contains(10, 20));
+  }
+
+  @Test
+  void testRemove() {
+    OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>(Comparator.naturalOrder());
+    treap.insert(10);
+    treap.insert(20);
+
+    treap.remove(10);
+    treap.remove(15);
+
+    assertThat(treap.size(), is(1));
+    assertThat(treap.rank(20), is(0));
+    assertThat(treap.first(10), contains(20));
+  }
+
+  @Test
+  void testClear() {
+    OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>(Comparator.naturalOrder());
+    treap.insert(10);
+
+    treap.clear();
+
+    assertThat(treap.size(), is(0));
+    assertThat(treap.first(10), is(empty()));
+  }
+
+  @Test
+  void testMatchesSortedList() {
+    OrderStatisticTreap<Integer> treap = new OrderStatisticTreap<>(Comparator.reverseOrder());
+    List<Integer> expected = new ArrayList<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 10_000; i++) {
+      int key = random.nextInt(2_000);
+      if (expected.contains(key)) {
+        treap.remove(key);
+        expected.remove(Integer.valueOf(key));
+      } else {
+        treap.insert(key);
+        expected.add(key);
+      }
+    }
+    expected.sort(Comparator.reverseOrder());
+
+    assertThat(treap.size(), is(expected.size()));
+    assertThat(treap.first(50), is(expected.subList(0, 50)));
+    for (int rank = 0; rank < expected.size(); rank += 97) {
+      assertThat(treap.rank(expected.get(rank)), is(rank));
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package de.cimtag.rateyourbooks.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.startsWith;
+
+import de.cimtag.rateyourbooks.model.Book;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Scale tests for the search queries of the BookRepository.
+ * <p>
+ * This class seeds a large number of books and verifies via {@code EXPLAIN} that the title and author lookups are served by the indexes created in the
+ * {@code V2__Books_search_indexes.sql} migration instead of sequential scans. The explained statements are the ones the repository methods actually send
+ * to the database, recorded by a Hibernate {@link StatementInspector}. They are prepared with their bind parameters and explained with
+ * {@code EXPLAIN EXECUTE}, so the tests fail as soon as a repository query drifts away from its index.
+ * </p>
+ * <p>
+ * Seeding takes a while, so the tests are excluded from the regular test run. Run them with {@code mvn test -Pscale}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Tag("scale")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "de.cimtag.rateyourbooks.repository.BookRepositoryScaleTest$RecordingStatementInspector")
+@TestInstance(Lifecycle.PER_CLASS)
+class BookRepositoryScaleTest {
+
+  private static final int SEEDED_BOOKS = 200_000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  @BeforeAll
+  void seedBooks() {
+    jdbcTemplate.update("INSERT INTO books (title, author) "
+        + "SELECT 'Scale Title ' || n, 'Scale Author ' || (n % 1000) FROM generate_series(1, ?) n", SEEDED_BOOKS);
+    jdbcTemplate.execute("ANALYZE books");
+  }
+
+  @AfterAll
+  void removeSeededBooks() {
+    jdbcTemplate.update("DELETE FROM books WHERE author LIKE 'Scale Author %'");
+  }
+
+  @Test
+  void testFindAllByAuthorUsesAuthorIndex() {
+    String sql = recordStatement(() -> assertThat(bookRepository.findAllDtosByAuthor("Scale Author 42"), hasSize(SEEDED_BOOKS / 1000)));
+
+    assertUsesIndex(explainExecute(sql, "Scale Author 42"), "idx_books_author");
+  }
+
+  @Test
+  void testFindByTitleAndAuthorUsesCompositeIndex() {
+    String sql = recordStatement(() -> assertThat(bookRepository.findDtoByTitleAndAuthor("Scale Title 4711", "Scale Author 711").isPresent(), is(true)));
+
+    assertUsesIndex(explainExecute(sql, "Scale Title 4711", "Scale Author 711"), "idx_books_title_author");
+  }
+
+  @Test
+  void testTitlePrefixSearchUsesFoldedIndex() {
+    List<Book> books = new ArrayList<>();
+    String sql = recordStatement(() -> books.addAll(bookRepository.findAllByTitlePrefix("SCALE TITLE 1234", 50)));
+
+    assertUsesIndex(explainExecute(sql, "SCALE TITLE 1234", 50), "idx_books_title_folded");
+    assertThat(books, hasSize(50));
+    assertThat(books, everyItem(hasProperty("title", startsWith("Scale Title 1234"))));
+  }
+
+  @Test
+  void testTitleSubstringSearchUsesTrigramIndex() {
+    String sql = recordStatement(() -> assertThat(bookRepository.findAllByTitleFragment("19999", 50), hasSize(12)));
+
+    assertUsesIndex(explainExecute(sql, "19999", 50), "idx_books_title_folded_trgm");
+  }
+
+  @Test
+  void testAuthorPrefixSearchUsesFoldedIndex() {
+    List<Book> books = new ArrayList<>();
+    String sql = recordStatement(() -> books.addAll(bookRepository.findAllByAuthorPrefix("SCALE AUTHOR 777", 50)));
+
+    assertUsesIndex(explainExecute(sql, "SCALE AUTHOR 777", 50), "idx_books_author_folded");
+    assertThat(books, hasSize(50));
+    assertThat(books, everyItem(hasProperty("author", is("Scale Author 777"))));
+  }
+
+  @Test
+  void testAuthorSubstringSearchUsesTrigramIndex() {
+    String sql = recordStatement(() -> assertThat(bookRepository.findAllByAuthorFragment("thor 777", 50), hasSize(50)));
+
+    assertUsesIndex(explainExecute(sql, "thor 777", 50), "idx_books_author_folded_trgm");
+  }
+
+  /**
+   * Runs the given repository call and returns the SQL statement it sent to the database.
+   */
+  private static String recordStatement(Runnable repositoryCall) {
+    List<String> statements = RecordingStatementInspector.STATEMENTS.get();
+    statements.clear();
+    repositoryCall.run();
+    assertThat(statements, hasSize(1));
+    return statements.getFirst();
+  }
+
+  /**
+   * Prepares the statement with its {@code ?} placeholders as bind parameters and explains its execution with the given parameter values.
+   */
+  private String explainExecute(String sql, Object... parameters) {
+    StringBuilder prepared = new StringBuilder();
+    int parameter = 0;
+    for (char c : sql.toCharArray()) {
+      if (c == '?') {
+        prepared.append('$').append(++parameter);
+      } else {
+        prepared.append(c);
+      }
+    }
+    assertThat("Number of bind parameters of " + sql, parameter, is(parameters.length));
+    String arguments = Stream.of(parameters)
+        .map(value -> value instanceof String text ? "'" + text.replace("'", "''") + "'" : String.valueOf(value))
+        .collect(Collectors.joining(", "));
+
+    // Prepared statements belong to the session, so all statements have to run on the same connection
+    return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("PREPARE explained AS " + prepared);
+        try {
+          List<String> plan = new ArrayList<>();
+          try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE explained(" + arguments + ")")) {
+            while (resultSet.next()) {
+              plan.add(resultSet.getString(1));
+            }
+          }
+          return String.join("\n", plan);
+        } finally {
+          statement.execute("DEALLOCATE explained");
+        }
+      }
+    });
+  }
+
+  private static void assertUsesIndex(String plan, String index) {
+    // Word boundaries, so e.g. idx_books_author does not match idx_books_author_folded
+    assertThat(plan, matchesPattern(Pattern.compile(".*\\b" + index + "\\b.*", Pattern.DOTALL)));
+  }
+
+  /**
+   * Records the SQL statements Hibernate sends to the database, per thread, so statements of background tasks are not mixed in.
+   */
+  public static class RecordingStatementInspector implements StatementInspector {
+
+    static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.get().add(sql);
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package de.cimtag.rateyourbooks.routing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import jakarta.servlet.http.Cookie;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Unit tests for the ReplicaRoutingDataSource class.
+ *
+ * @author Niklas Witzel
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+  @Mock
+  private DataSource primary;
+
+  @Mock
+  private DataSource firstReplica;
+
+  @Mock
+  private DataSource secondReplica;
+
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void beforeEach() {
+    routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica), Duration.ofHours(1), Duration.ofSeconds(10));
+    routingDataSource.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void afterEach() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void testWritesUsePrimary() {
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(ReplicaRoutingDataSource.PRIMARY));
+  }
+
+  @Test
+  void testReadOnlyTransactionsAreSpreadOverReplicas() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    List<Object> keys = IntStream.range(0, 2).mapToObj(i -> routingDataSource.determineCurrentLookupKey()).toList();
+
+    assertThat(keys, containsInAnyOrder("replica-0", "replica-1"));
+  }
+
+  @Test
+  void testReadsStayOnPrimaryAfterChange() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    MockHttpServletResponse response = inRequest(new MockHttpServletRequest());
+
+    routingDataSource.onBooksChanged(BooksChangedEvent.deleted(List.of(1L)));
+
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(ReplicaRoutingDataSource.PRIMARY));
+    assertThat(response.getCookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE), notNullValue());
+  }
+
+  @Test
+  void testReadsOfOtherClientsUseReplicasAfterChange() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    inRequest(new MockHttpServletRequest());
+    routingDataSource.onBooksChanged(BooksChangedEvent.deleted(List.of(1L)));
+
+    inRequest(new MockHttpServletRequest());
+
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(not(ReplicaRoutingDataSource.PRIMARY)));
+  }
+
+  @Test
+  void testReadsWithRecentWriteCookieUsePrimary() {
+    // The write may have been made on another instance
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(new Cookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE, String.valueOf(System.currentTimeMillis())));
+    inRequest(request);
+
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(ReplicaRoutingDataSource.PRIMARY));
+  }
+
+  @Test
+  void testReadsWithExpiredWriteCookieUseReplicas() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    long writeMillis = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+    request.setCookies(new Cookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE, String.valueOf(writeMillis)));
+    inRequest(request);
+
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(not(ReplicaRoutingDataSource.PRIMARY)));
+  }
+
+  @Test
+  void testChangesOutsideOfRequestsKeepReadsOnReplicas() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    routingDataSource.onBooksChanged(BooksChangedEvent.deleted(List.of(1L)));
+
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(not(ReplicaRoutingDataSource.PRIMARY)));
+  }
+
+  @Test
+  void testUnavailableReplicaReceivesNoReads() throws SQLException {
+    primaryAt("0/3000000");
+    when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+    when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+    routingDataSource.checkReplicas();
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+    assertThat(routingDataSource.determineCurrentLookupKey(), is(ReplicaRoutingDataSource.PRIMARY));
+  }
+
+  @Test
+  void testRecoveredReplicaReceivesReadsAgain() throws SQLException {
+    primaryAt("0/3000000");
+    Connection connection = replicaStatus(true, "streaming", true, null);
+    when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused")).thenReturn(connection);
+    when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+    routingDataSource.checkReplicas();
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+
+    routingDataSource.checkReplicas();
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(true));
+    assertThat(routingDataSource.determineCurrentLookupKey(), is("replica-0"));
+  }
+
+  @Test
+  void testNonReplicaReceivesNoReads() throws SQLException {
+    primaryAt("0/3000000");
+    Connection connection = replicaStatus(false, null, null, null);
+    when(firstReplica.getConnection()).thenReturn(connection);
+    when(secondReplica.getConnection()).thenReturn(connection);
+
+    routingDataSource.checkReplicas();
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+    assertThat(routingDataSource.isHealthy("replica-1"), is(false));
+  }
+
+  @Test
+  void testReplicaWithStoppedStreamReceivesNoReads() throws SQLException {
+    primaryAt("0/3000000");
+    // Replay has caught up with everything received before the stream stopped
+    when(firstReplica.getConnection()).thenReturn(replicaStatus(true, null, false, 0.0));
+    when(secondReplica.getConnection()).thenReturn(replicaStatus(true, "waiting", false, 0.0));
+
+    routingDataSource.checkReplicas();
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+    assertThat(routingDataSource.isHealthy("replica-1"), is(false));
+  }
+
+  @Test
+  void testLaggingReplicaReceivesNoReads() throws SQLException {
+    primaryAt("0/3000000");
+    when(firstReplica.getConnection()).thenReturn(replicaStatus(true, "streaming", false, 30.0));
+    when(secondReplica.getConnection()).thenReturn(replicaStatus(true, "streaming", false, 2.0));
+
+    routingDataSource.checkReplicas();
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+    assertThat(routingDataSource.isHealthy("replica-1"), is(true));
+  }
+
+  @Test
+  void testReplicasReceiveNoReadsWhileLagCannotBeMeasured() throws SQLException {
+    when(primary.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+    routingDataSource.checkReplicas();
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(false));
+    assertThat(routingDataSource.isHealthy("replica-1"), is(false));
+  }
+
+  private static MockHttpServletResponse inRequest(MockHttpServletRequest request) {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    return response;
+  }
+
+  private void primaryAt(String lsn) throws SQLException {
+    Connection connection = mock(Connection.class, Answers.RETURNS_DEEP_STUBS);
+    when(connection.createStatement().executeQuery(anyString()).getString(1)).thenReturn(lsn);
+    when(primary.getConnection()).thenReturn(connection);
+  }
+
+  /**
+   * Mocks a connection returning the given replica status, {@code null} values are returned as SQL NULL.
+   */
+  private static Connection replicaStatus(boolean inRecovery, String receiverStatus, Boolean caughtUp, Double lagSeconds) throws SQLException {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    lenient().when(resultSet.getBoolean(1)).thenReturn(inRecovery);
+    lenient().when(resultSet.getString(2)).thenReturn(receiverStatus);
+    lenient().when(resultSet.getBoolean(3)).thenReturn(Boolean.TRUE.equals(caughtUp));
+    lenient().when(resultSet.getDouble(4)).thenReturn(lagSeconds == null ? 0.0 : lagSeconds);
+    lenient().when(resultSet.wasNull()).thenReturn(lagSeconds == null);
+    return connection;
+  }
+}
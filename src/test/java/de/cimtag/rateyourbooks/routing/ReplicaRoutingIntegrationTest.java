@@ -0,0 +1,129 @@
+package de.cimtag.rateyourbooks.routing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.service.BookService;
+import jakarta.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Integration tests for the routing of read-only transactions to a read replica.
+ * <p>
+ * The tests need a primary on port 5432 and a streaming replica of it on port 5433, as started by {@code docker compose up db db-replica}. Run them with
+ * {@code mvn test -Preplica}.
+ * </p>
+ *
+ * @author Niklas Witzel
+ */
+@Tag("replica")
+@SpringBootTest(properties = {
+    "rateyourbooks.datasource.routing.enabled=true",
+    "rateyourbooks.datasource.routing.replicas[0].url=jdbc:postgresql://localhost:5433/rateyourbooks",
+    "rateyourbooks.datasource.routing.read-your-writes-window=1s",
+    "rateyourbooks.cache.enabled=false"
+})
+class ReplicaRoutingIntegrationTest {
+
+  private static final String IS_REPLICA = "SELECT pg_is_in_recovery()";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private BookService bookService;
+
+  @Autowired
+  private HikariDataSource primaryDataSource;
+
+  @Autowired
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @Test
+  void testReadOnlyTransactionUsesReplica() {
+    assertThat(isReplica(true), is(true));
+  }
+
+  @Test
+  void testReadWriteTransactionUsesPrimary() {
+    assertThat(isReplica(false), is(false));
+  }
+
+  @Test
+  void testReadsSeeOwnWritesWithinWindow() throws InterruptedException {
+    MockHttpServletResponse response = inRequest(new MockHttpServletRequest());
+    BookDto createdBook = bookService.createBook(BookDto.builder().title("Replica Book").author("Replica Author").build());
+    try {
+      Cookie lastWrite = response.getCookie(ReplicaRoutingDataSource.LAST_WRITE_COOKIE);
+      assertThat(lastWrite, notNullValue());
+      assertThat(isReplica(true), is(false));
+
+      // The next request of the client, which may be served by any instance
+      MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+      nextRequest.setCookies(lastWrite);
+      inRequest(nextRequest);
+      assertThat(isReplica(true), is(false));
+      assertThat(bookService.findAllBooksByAuthor("Replica Author"), hasSize(1));
+
+      // Other clients keep reading from the replica
+      inRequest(new MockHttpServletRequest());
+      assertThat(isReplica(true), is(true));
+
+      inRequest(nextRequest);
+      Thread.sleep(1_500);
+      assertThat(isReplica(true), is(true));
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+      bookService.deleteBooks(List.of(createdBook.id()));
+    }
+  }
+
+  @Test
+  void testStreamingReplicaIsHealthy() {
+    routingDataSource.checkReplicas();
+
+    assertThat(routingDataSource.isHealthy("replica-0"), is(true));
+  }
+
+  @Test
+  void testNonReplicaIsUnhealthy() {
+    // The primary is in sync with itself, but it is no replica and must not receive reads as one
+    ReplicaRoutingDataSource primaryAsReplica = new ReplicaRoutingDataSource(primaryDataSource, List.of(primaryDataSource), Duration.ZERO,
+        Duration.ofSeconds(10));
+
+    primaryAsReplica.checkReplicas();
+
+    assertThat(primaryAsReplica.isHealthy("replica-0"), is(false));
+  }
+
+  private static MockHttpServletResponse inRequest(MockHttpServletRequest request) {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    return response;
+  }
+
+  private boolean isReplica(boolean readOnly) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(readOnly);
+    return Boolean.TRUE.equals(transactionTemplate.execute(status -> jdbcTemplate.queryForObject(IS_REPLICA, Boolean.class)));
+  }
+}
@@ -0,0 +1,148 @@
+package de.cimtag.rateyourbooks.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookSearchHitDto;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
+import de.cimtag.rateyourbooks.event.BooksImportedEvent;
+import de.cimtag.rateyourbooks.service.BookService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for the BookSearchIndex class.
+ *
+ * @author Niklas Witzel
+ */
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+  @Mock
+  private BookService bookService;
+
+  private BookSearchIndex bookSearchIndex;
+
+  @BeforeEach
+  void beforeEach() {
+    bookSearchIndex = new BookSearchIndex(bookService);
+    bookSearchIndex.onBooksChanged(BooksChangedEvent.saved(List.of(
+        createBook(1L, "Eine kurze Geschichte der Menschheit", "Yuval Noah Harari"),
+        createBook(2L, "Homo Deus: Eine Geschichte von Morgen", "Yuval Noah Harari"),
+        createBook(3L, "Utopien für Realisten", "Rutger Bregman"))));
+  }
+
+  @AfterEach
+  void afterEach() {
+    bookSearchIndex.close();
+  }
+
+  @Test
+  void testSearchRanksBooksByRelevance() {
+    List<BookSearchHitDto> hits = bookSearchIndex.search("kurze Geschichte", 10);
+
+    assertThat(ids(hits), contains(1L, 2L));
+    assertThat(hits.getFirst().score(), greaterThan(hits.get(1).score()));
+  }
+
+  @Test
+  void testSearchFoldsCaseAndUmlauts() {
+    assertThat(ids(bookSearchIndex.search("UTOPIEN FUER", 10)), contains(3L));
+    assertThat(ids(bookSearchIndex.search("für", 10)), contains(3L));
+  }
+
+  @Test
+  void testSearchReturnsTopResultsOnly() {
+    assertThat(bookSearchIndex.search("harari", 1), hasSize(1));
+  }
+
+  @Test
+  void testSearchWithoutMatches() {
+    assertThat(bookSearchIndex.search("Fourth Wing", 10), empty());
+    assertThat(bookSearchIndex.search(" ", 10), empty());
+  }
+
+  @Test
+  void testUpdatedBookIsReindexed() {
+    bookSearchIndex.onBooksChanged(BooksChangedEvent.saved(List.of(createBook(3L, "Im Grunde gut", "Rutger Bregman"))));
+
+    assertThat(bookSearchIndex.search("Utopien", 10), empty());
+    assertThat(ids(bookSearchIndex.search("Grunde", 10)), contains(3L));
+  }
+
+  @Test
+  void testDeletedBookIsRemoved() {
+    bookSearchIndex.onBooksChanged(BooksChangedEvent.deleted(List.of(1L)));
+
+    assertThat(ids(bookSearchIndex.search("Geschichte", 10)), contains(2L));
+    assertThat(bookSearchIndex.size(), is(2));
+  }
+
+  @Test
+  void testSearchIsServedFromPreviousIndexDuringBuild() {
+    doAnswer(invocation -> {
+      Consumer<BookDto> consumer = invocation.getArgument(0);
+      consumer.accept(createBook(4L, "Fourth Wing", "Rebecca Yarros"));
+      // Runs on another thread, so a search blocked by the build would time out
+      List<Long> hitsDuringBuild = CompletableFuture.supplyAsync(() -> ids(bookSearchIndex.search("Geschichte", 10))).get(5, TimeUnit.SECONDS);
+      assertThat(hitsDuringBuild, contains(1L, 2L));
+      return null;
+    }).when(bookService).streamAllBooks(any());
+
+    bookSearchIndex.build();
+
+    assertThat(bookSearchIndex.search("Geschichte", 10), empty());
+    assertThat(ids(bookSearchIndex.search("Wing", 10)), contains(4L));
+  }
+
+  @Test
+  void testChangesDuringBuildAreKept() {
+    doAnswer(invocation -> {
+      Consumer<BookDto> consumer = invocation.getArgument(0);
+      consumer.accept(createBook(4L, "Fourth Wing", "Rebecca Yarros"));
+      bookSearchIndex.onBooksChanged(BooksChangedEvent.deleted(List.of(4L)));
+      bookSearchIndex.onBooksChanged(BooksChangedEvent.saved(List.of(createBook(5L, "Iron Flame", "Rebecca Yarros"))));
+      return null;
+    }).when(bookService).streamAllBooks(any());
+
+    bookSearchIndex.build();
+
+    assertThat(ids(bookSearchIndex.search("Yarros", 10)), contains(5L));
+  }
+
+  @Test
+  void testImportRebuildsInBackground() {
+    bookSearchIndex.onBooksImported(new BooksImportedEvent(1, false));
+
+    verify(bookService, timeout(5_000)).streamAllBooks(any());
+  }
+
+  private static List<Long> ids(List<BookSearchHitDto> hits) {
+    return hits.stream().map(hit -> hit.book().id()).toList();
+  }
+
+  private static BookDto createBook(Long id, String title, String author) {
+    return BookDto.builder()
+        .id(id)
+        .title(title)
+        .author(author)
+        .build();
+  }
+}
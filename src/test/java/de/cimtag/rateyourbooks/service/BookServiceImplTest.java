@@ -2,19 +2,26 @@ package de.cimtag.rateyourbooks.service;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import de.cimtag.rateyourbooks.dto.BookDto;
+import de.cimtag.rateyourbooks.dto.BookPageDto;
+import de.cimtag.rateyourbooks.dto.MatchMode;
+import de.cimtag.rateyourbooks.event.BooksChangedEvent;
 import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import de.cimtag.rateyourbooks.exception.BookVersionMismatchException;
 import de.cimtag.rateyourbooks.model.Book;
 import de.cimtag.rateyourbooks.repository.BookRepository;
+import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,9 +29,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 /**
  * Unit tests for the BookServiceImpl class.
@@ -40,6 +50,12 @@ class BookServiceImplTest {
   @Mock
   private BookRepository bookRepository;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private EntityManager entityManager;
+
   @Captor
   private ArgumentCaptor<Book> bookArgumentCaptor;
 
@@ -59,7 +75,7 @@ class BookServiceImplTest {
 
   @Test
   void testFindBookById() {
-    when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+    when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(book.toDto()));
 
     BookDto foundBook = bookServiceImpl.findBookById(1L);
 
@@ -69,14 +85,14 @@ class BookServiceImplTest {
 
   @Test
   void testFindBookByIdThrowsException() {
-    when(bookRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+    when(bookRepository.findDtoById(any(Long.class))).thenReturn(Optional.empty());
 
     assertThrows(BookNotFoundException.class, () -> bookServiceImpl.findBookById(1L));
   }
 
   @Test
   void testFindBookByTitle() {
-    when(bookRepository.findByTitle("Test Title")).thenReturn(Optional.of(book));
+    when(bookRepository.findDtoByTitle("Test Title")).thenReturn(Optional.of(book.toDto()));
 
     BookDto foundBook = bookServiceImpl.findBookByTitle("Test Title");
 
@@ -86,14 +102,14 @@ class BookServiceImplTest {
 
   @Test
   void testFindBookByTitleThrowsException() {
-    when(bookRepository.findByTitle(any(String.class))).thenReturn(Optional.empty());
+    when(bookRepository.findDtoByTitle(any(String.class))).thenReturn(Optional.empty());
 
     assertThrows(BookNotFoundException.class, () -> bookServiceImpl.findBookByTitle("Non-existent Title"));
   }
 
   @Test
   void testFindBookByTitleAndAuthor() {
-    when(bookRepository.findByTitleAndAuthor("Test Title", "Test Author")).thenReturn(Optional.of(book));
+    when(bookRepository.findDtoByTitleAndAuthor("Test Title", "Test Author")).thenReturn(Optional.of(book.toDto()));
 
     BookDto foundBook = bookServiceImpl.findBookByTitleAndAuthor("Test Title", "Test Author");
     assertThat(foundBook, is(notNullValue()));
@@ -103,7 +119,7 @@ class BookServiceImplTest {
 
   @Test
   void testFindBookByTitleAndAuthorThrowsException() {
-    when(bookRepository.findByTitleAndAuthor(any(String.class), any(String.class))).thenReturn(Optional.empty());
+    when(bookRepository.findDtoByTitleAndAuthor(any(String.class), any(String.class))).thenReturn(Optional.empty());
 
     assertThrows(BookNotFoundException.class, () -> bookServiceImpl.findBookByTitleAndAuthor("Non-existent Title", "Non-existent Author"));
   }
@@ -115,7 +131,7 @@ class BookServiceImplTest {
         .author("Test Author")
         .build();
     List<Book> books = List.of(book, book2);
-    when(bookRepository.findAllByAuthor("Test Author")).thenReturn(books);
+    when(bookRepository.findAllDtosByAuthor("Test Author")).thenReturn(books.stream().map(Book::toDto).toList());
 
     List<BookDto> foundBooks = bookServiceImpl.findAllBooksByAuthor("Test Author");
 
@@ -133,7 +149,7 @@ class BookServiceImplTest {
         .author("Test Author")
         .build();
     List<Book> books = List.of(book, book2);
-    when(bookRepository.findAll()).thenReturn(books);
+    when(bookRepository.findAllDtos()).thenReturn(books.stream().map(Book::toDto).toList());
 
     List<BookDto> foundBooks = bookServiceImpl.findAllBooks();
 
@@ -144,6 +160,62 @@ class BookServiceImplTest {
     assertThat(foundBooks.get(1).author(), is("Test Author"));
   }
 
+  @Test
+  void testSearchBooksByTitlePrefix() {
+    when(bookRepository.findAllByTitlePrefix("Test", 10)).thenReturn(List.of(book));
+
+    List<BookDto> foundBooks = bookServiceImpl.searchBooksByTitle("Test", MatchMode.PREFIX, 10);
+
+    assertThat(foundBooks, hasSize(1));
+    assertThat(foundBooks.getFirst().title(), is("Test Title"));
+  }
+
+  @Test
+  void testSearchBooksByTitleEscapesWildcards() {
+    when(bookRepository.findAllByTitleFragment("100\\% \\_", 10)).thenReturn(List.of());
+
+    List<BookDto> foundBooks = bookServiceImpl.searchBooksByTitle("100% _", MatchMode.SUBSTRING, 10);
+
+    assertThat(foundBooks, hasSize(0));
+    verify(bookRepository).findAllByTitleFragment("100\\% \\_", 10);
+  }
+
+  @Test
+  void testSearchBooksByAuthorSubstring() {
+    when(bookRepository.findAllByAuthorFragment("author", 10)).thenReturn(List.of(book));
+
+    List<BookDto> foundBooks = bookServiceImpl.searchBooksByAuthor("author", MatchMode.SUBSTRING, 10);
+
+    assertThat(foundBooks, hasSize(1));
+    assertThat(foundBooks.getFirst().author(), is("Test Author"));
+  }
+
+  @Test
+  void testFindBooksPage() {
+    Book book2 = Book.builder()
+        .id(2L)
+        .title("Test Title 2")
+        .author("Test Author")
+        .build();
+    when(bookRepository.findDtosByIdGreaterThan(0L, Limit.of(2))).thenReturn(List.of(book.toDto(), book2.toDto()));
+
+    BookPageDto page = bookServiceImpl.findBooksPage(null, 2);
+
+    assertThat(page.books(), hasSize(2));
+    assertThat(page.books().getFirst().id(), is(1L));
+    assertThat(page.nextCursor(), is(2L));
+  }
+
+  @Test
+  void testFindBooksPageLastPage() {
+    when(bookRepository.findDtosByIdGreaterThan(1L, Limit.of(2))).thenReturn(List.of());
+
+    BookPageDto page = bookServiceImpl.findBooksPage(1L, 2);
+
+    assertThat(page.books(), hasSize(0));
+    assertThat(page.nextCursor(), is(nullValue()));
+  }
+
   @Test
   void testCreateBook() {
     when(bookRepository.save(any(Book.class))).thenReturn(book);
@@ -157,26 +229,94 @@ class BookServiceImplTest {
     assertThat(createdBookDto.id(), is(1L));
     assertThat(createdBookDto.title(), is("Test Title"));
     assertThat(createdBookDto.author(), is("Test Author"));
+    verify(eventPublisher).publishEvent(BooksChangedEvent.saved(List.of(createdBookDto)));
+  }
+
+  @Test
+  void testCreateBookWithId() {
+    BookDto bookDto = BookDto.builder()
+        .id(1L)
+        .title("Test Title")
+        .author("Test Author")
+        .build();
+
+    assertThrows(IllegalArgumentException.class, () -> bookServiceImpl.createBook(bookDto));
+    verify(bookRepository, never()).save(any(Book.class));
+  }
+
+  @Test
+  void testCreateBooksWithId() {
+    List<BookDto> bookDtos = List.of(
+        createUpdateBookValues("Test Title", "Test Author"),
+        BookDto.builder().id(2L).title("Test Title 2").author("Test Author").build());
+
+    assertThrows(IllegalArgumentException.class, () -> bookServiceImpl.createBooks(bookDtos));
+    verify(bookRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void testCreateBooks() {
+    Book book2 = Book.builder()
+        .id(2L)
+        .title("Test Title 2")
+        .author("Test Author")
+        .build();
+    when(bookRepository.saveAll(any())).thenReturn(List.of(book, book2));
+
+    List<BookDto> createdBooks = bookServiceImpl.createBooks(List.of(
+        createUpdateBookValues("Test Title", "Test Author"),
+        createUpdateBookValues("Test Title 2", "Test Author")));
+
+    assertThat(createdBooks, hasSize(2));
+    assertThat(createdBooks.getFirst().id(), is(1L));
+    assertThat(createdBooks.get(1).id(), is(2L));
+  }
+
+  @Test
+  void testDeleteBooks() {
+    when(bookRepository.removeAllByIdIn(List.of(1L))).thenReturn(List.of(1L));
+
+    bookServiceImpl.deleteBooks(List.of(1L));
+
+    InOrder inOrder = inOrder(entityManager, bookRepository);
+    inOrder.verify(entityManager).flush();
+    inOrder.verify(bookRepository, times(1)).removeAllByIdIn(List.of(1L));
+    inOrder.verify(entityManager).clear();
+  }
+
+  @Test
+  void testDeleteBooksThrowsExceptionForMissingBook() {
+    when(bookRepository.removeAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+    List<Long> ids = List.of(1L, 2L);
+    assertThrows(BookNotFoundException.class, () -> bookServiceImpl.deleteBooks(ids));
   }
 
   @Test
   void testDeleteBook() {
-    doNothing().when(bookRepository).deleteById(any(Long.class));
+    when(bookRepository.removeById(1L)).thenReturn(1);
 
     bookServiceImpl.deleteBook(1L);
 
-    verify(bookRepository, times(1)).deleteById(1L);
+    verify(bookRepository, times(1)).removeById(1L);
+  }
+
+  @Test
+  void testDeleteBookThrowsExceptionForMissingBook() {
+    when(bookRepository.removeById(1L)).thenReturn(0);
+
+    assertThrows(BookNotFoundException.class, () -> bookServiceImpl.deleteBook(1L));
   }
 
 
   @Test
   void testUpdateBookBothFields() {
     when(bookRepository.findById(1L)).thenReturn(Optional.of(createExistingBook()));
-    when(bookRepository.save(any(Book.class))).thenReturn(book);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
     bookServiceImpl.updateBook(1L, createUpdateBookValues("Updated Title", "Updated Author"));
 
-    verify(bookRepository).save(bookArgumentCaptor.capture());
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
 
     assertThat(bookArgumentCaptor.getValue().getTitle(), is("Updated Title"));
     assertThat(bookArgumentCaptor.getValue().getAuthor(), is("Updated Author"));
@@ -185,11 +325,11 @@ class BookServiceImplTest {
   @Test
   void testUpdateBookTitleOnly() {
     when(bookRepository.findById(1L)).thenReturn(Optional.of(createExistingBook()));
-    when(bookRepository.save(any(Book.class))).thenReturn(book);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
     bookServiceImpl.updateBook(1L, createUpdateBookValues("Updated Title", null));
 
-    verify(bookRepository).save(bookArgumentCaptor.capture());
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
 
     assertThat(bookArgumentCaptor.getValue().getTitle(), is("Updated Title"));
     assertThat(bookArgumentCaptor.getValue().getAuthor(), is("Existing Author"));
@@ -198,11 +338,11 @@ class BookServiceImplTest {
   @Test
   void testUpdateBookAuthorOnly() {
     when(bookRepository.findById(1L)).thenReturn(Optional.of(createExistingBook()));
-    when(bookRepository.save(any(Book.class))).thenReturn(book);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
     bookServiceImpl.updateBook(1L, createUpdateBookValues(null, "Updated Author"));
 
-    verify(bookRepository).save(bookArgumentCaptor.capture());
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
 
     assertThat(bookArgumentCaptor.getValue().getTitle(), is("Existing Title"));
     assertThat(bookArgumentCaptor.getValue().getAuthor(), is("Updated Author"));
@@ -211,11 +351,11 @@ class BookServiceImplTest {
   @Test
   void testUpdateBookNoFields() {
     when(bookRepository.findById(1L)).thenReturn(Optional.of(createExistingBook()));
-    when(bookRepository.save(any(Book.class))).thenReturn(book);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
     bookServiceImpl.updateBook(1L, createUpdateBookValues(null, null));
 
-    verify(bookRepository).save(bookArgumentCaptor.capture());
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
 
     assertThat(bookArgumentCaptor.getValue().getTitle(), is("Existing Title"));
     assertThat(bookArgumentCaptor.getValue().getAuthor(), is("Existing Author"));
@@ -224,11 +364,11 @@ class BookServiceImplTest {
   @Test
   void testUpdateBookBlankFields() {
     when(bookRepository.findById(1L)).thenReturn(Optional.of(createExistingBook()));
-    when(bookRepository.save(any(Book.class))).thenReturn(book);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
     bookServiceImpl.updateBook(1L, createUpdateBookValues(" ", " "));
 
-    verify(bookRepository).save(bookArgumentCaptor.capture());
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
 
     assertThat(bookArgumentCaptor.getValue().getTitle(), is("Existing Title"));
     assertThat(bookArgumentCaptor.getValue().getAuthor(), is("Existing Author"));
@@ -242,6 +382,88 @@ class BookServiceImplTest {
     assertThrows(BookNotFoundException.class, () -> bookServiceImpl.updateBook(1L, updateBookValues));
   }
 
+  @Test
+  void testUpdateBooks() {
+    when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(createExistingBook()));
+
+    List<BookDto> updatedBooks = bookServiceImpl.updateBooks(List.of(BookDto.builder()
+        .id(1L)
+        .title("Updated Title")
+        .build()));
+
+    assertThat(updatedBooks, hasSize(1));
+    assertThat(updatedBooks.getFirst().title(), is("Updated Title"));
+    assertThat(updatedBooks.getFirst().author(), is("Existing Author"));
+  }
+
+  @Test
+  void testUpdateBooksThrowsExceptionForMissingId() {
+    List<BookDto> updateBookValues = List.of(createUpdateBookValues("Updated Title", "Updated Author"));
+    assertThrows(IllegalArgumentException.class, () -> bookServiceImpl.updateBooks(updateBookValues));
+  }
+
+  @Test
+  void testUpdateBooksThrowsExceptionForMissingBook() {
+    when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of());
+
+    List<BookDto> updateBookValues = List.of(BookDto.builder().id(2L).title("Updated Title").build());
+    assertThrows(BookNotFoundException.class, () -> bookServiceImpl.updateBooks(updateBookValues));
+  }
+
+  @Test
+  void testUpdateBookWithExpectedVersion() {
+    Book existingBook = createExistingBook();
+    existingBook.setVersion(3L);
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
+
+    bookServiceImpl.updateBook(1L, createUpdateBookValues("Updated Title", null), 3L);
+
+    verify(bookRepository).saveAndFlush(bookArgumentCaptor.capture());
+
+    assertThat(bookArgumentCaptor.getValue().getTitle(), is("Updated Title"));
+  }
+
+  @Test
+  void testUpdateBookWithOutdatedVersion() {
+    Book existingBook = createExistingBook();
+    existingBook.setVersion(3L);
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+    BookDto updateBookValues = createUpdateBookValues("Updated Title", null);
+    assertThrows(BookVersionMismatchException.class, () -> bookServiceImpl.updateBook(1L, updateBookValues, 2L));
+
+    verify(bookRepository, never()).saveAndFlush(any(Book.class));
+  }
+
+  @Test
+  void testPatchBook() {
+    when(bookRepository.patchById(1L, "Updated Title", null, null)).thenReturn(1);
+    when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(book.toDto()));
+
+    BookDto result = bookServiceImpl.patchBook(1L, createUpdateBookValues("Updated Title", " "), null);
+
+    assertThat(result.id(), is(1L));
+    verify(bookRepository, times(0)).findById(any(Long.class));
+  }
+
+  @Test
+  void testPatchBookNotFound() {
+    when(bookRepository.patchById(1L, "Updated Title", null, null)).thenReturn(0);
+
+    BookDto patchBookValues = createUpdateBookValues("Updated Title", null);
+    assertThrows(BookNotFoundException.class, () -> bookServiceImpl.patchBook(1L, patchBookValues, null));
+  }
+
+  @Test
+  void testPatchBookWithOutdatedVersion() {
+    when(bookRepository.patchById(1L, "Updated Title", null, 2L)).thenReturn(0);
+    when(bookRepository.existsById(1L)).thenReturn(true);
+
+    BookDto patchBookValues = createUpdateBookValues("Updated Title", null);
+    assertThrows(BookVersionMismatchException.class, () -> bookServiceImpl.patchBook(1L, patchBookValues, 2L));
+  }
+
   private Book createExistingBook() {
     return Book.builder()
         .id(1L)
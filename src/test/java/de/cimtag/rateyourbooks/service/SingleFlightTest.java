@@ -0,0 +1,122 @@
+package de.cimtag.rateyourbooks.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.cimtag.rateyourbooks.exception.BookNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SingleFlight.
+ *
+ * @author Niklas Witzel
+ */
+class SingleFlightTest {
+
+  private static final int CALLERS = 50;
+
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  @Test
+  void testConcurrentIdenticalCallsShareOneExecution() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<String> results = runConcurrently(() -> singleFlight.execute("Author", () -> {
+      executions.incrementAndGet();
+      await(release);
+      return "Result";
+    }), release);
+
+    assertThat(executions.get(), is(1));
+    assertThat(results, everyItem(is("Result")));
+    assertThat(singleFlight.inFlight(), is(0));
+  }
+
+  @Test
+  void testFailureIsPropagatedToAllCallers() throws Exception {
+    BookNotFoundException failure = new BookNotFoundException("Book with title 'Missing' not found!");
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<String> results = runConcurrently(() -> {
+      try {
+        singleFlight.execute("Missing", () -> {
+          await(release);
+          throw failure;
+        });
+        return "no exception";
+      } catch (BookNotFoundException e) {
+        assertThat(e, is(sameInstance(failure)));
+        return "exception";
+      }
+    }, release);
+
+    assertThat(results, everyItem(is("exception")));
+    assertThat(singleFlight.inFlight(), is(0));
+  }
+
+  @Test
+  void testCallsAfterCompletionExecuteAgain() {
+    AtomicInteger executions = new AtomicInteger();
+
+    singleFlight.execute("Title", () -> "Result " + executions.incrementAndGet());
+    String result = singleFlight.execute("Title", () -> "Result " + executions.incrementAndGet());
+
+    assertThat(result, is("Result 2"));
+  }
+
+  @Test
+  void testDifferentKeysExecuteSeparately() {
+    assertThat(singleFlight.execute("First", () -> "First Result"), is("First Result"));
+    assertThat(singleFlight.execute("Second", () -> "Second Result"), is("Second Result"));
+  }
+
+  @Test
+  void testFailureIsRethrownToExecutingCaller() {
+    assertThrows(IllegalStateException.class, () -> singleFlight.execute("Failing", () -> {
+      throw new IllegalStateException("Database unavailable");
+    }));
+    assertThat(singleFlight.inFlight(), is(0));
+  }
+
+  /**
+   * Starts all callers, releases the blocked execution once every caller has joined the flight and returns the results of all callers.
+   */
+  private List<String> runConcurrently(Callable<String> caller, CountDownLatch release) throws Exception {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < CALLERS; i++) {
+        futures.add(executor.submit(caller));
+      }
+      // The waiting callers cannot be observed directly, give them time to join the flight
+      Thread.sleep(200);
+      release.countDown();
+
+      List<String> results = new ArrayList<>();
+      for (Future<String> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
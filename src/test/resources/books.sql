@@ -1,4 +1,4 @@
-TRUNCATE books;
+TRUNCATE books CASCADE;
 
 INSERT INTO books (id, title, author)
 VALUES (1, 'Fourth Wing', 'Rebecca Yarros');
@@ -11,5 +11,4 @@ VALUES (4, 'Eine kurze Geschichte der Menschheit', 'Yuval Noah Harari');
 INSERT INTO books (id, title, author)
 VALUES (5, 'Baustellen der Nation', 'Philip Banse');
 
-ALTER TABLE books
-    ALTER COLUMN id RESTART WITH 6;
+SELECT setval('books_seq', 6, false);